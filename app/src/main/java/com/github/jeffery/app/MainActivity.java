@@ -4,10 +4,10 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import android.os.Bundle;
 import android.view.Gravity;
-import android.widget.ImageView;
 import android.widget.TextView;
 
 import com.github.jeffery.app.databinding.ActivityMainBinding;
+import com.github.jeffery.tablelayout.CellImageSource;
 import com.github.jeffery.tablelayout.TableCell;
 
 import java.util.Random;
@@ -133,15 +133,15 @@ public class MainActivity extends AppCompatActivity {
         binding.btnAddImage.setOnClickListener(v->{
             TableCell cell = binding.table.getFocusedCell();
             if(cell != null){
-                ImageView imageView = new ImageView(v.getContext());
-                imageView.setImageResource(randomImage());
-                binding.table.addView(imageView, cell);
+                binding.table.setCellImage(cell.getRow(), cell.getCol(),
+                        CellImageSource.fromResource(getResources(), randomImage()));
             }
         });
         binding.btnAddClearChilds.setOnClickListener(v->{
             TableCell cell = binding.table.getFocusedCell();
             if(cell != null){
                 binding.table.removeViewAt(cell);
+                binding.table.setCellImage(cell.getRow(), cell.getCol(), null);
             }
         });
     }
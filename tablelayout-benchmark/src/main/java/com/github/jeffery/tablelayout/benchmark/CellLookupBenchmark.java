@@ -0,0 +1,44 @@
+package com.github.jeffery.tablelayout.benchmark;
+
+import com.github.jeffery.tablelayout.engine.SpanIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按行列查找、替换单元格数据和查找所在的合并区域。
+ * 使用-prof gc运行时gc.alloc.rate.norm应接近0 B/op，行列作为long键，不装箱也不创建键对象
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CellLookupBenchmark {
+
+    @Benchmark
+    public Object getCell(TableFixture table) {
+        int i = table.next();
+        return table.cellData.get(table.queryRow[i], table.queryColumn[i]);
+    }
+
+    /**
+     * 删除后重新放入同一个格子，表格状态不变
+     */
+    @Benchmark
+    public Object removePutGet(TableFixture table) {
+        int i = table.next();
+        int row = table.queryRow[i];
+        int column = table.queryColumn[i];
+        Object cell = table.cellData.remove(row, column);
+        table.cellData.put(row, column, cell);
+        return table.cellData.get(row, column);
+    }
+
+    @Benchmark
+    public SpanIndex.Span findSpan(TableFixture table) {
+        int i = table.next();
+        return table.spans.find(table.queryRow[i], table.queryColumn[i]);
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.jeffery.tablelayout.benchmark;
+
+import com.github.jeffery.tablelayout.engine.TableModel;
+import com.github.jeffery.tablelayout.engine.TableModelCodec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 表格模板的二进制编码与Java序列化的往返(编码后再解码)耗时对比。
+ * 模板有40列，部分行高列宽单独设置，每2x2个格子中有一个合并单元格或设置了对齐方式
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+    private static final int COLUMNS = 40;
+    private static final int GRAVITY_LEFT_TOP = 3 | 48;
+
+    /**
+     * 行数
+     */
+    @Param({"100", "2000"})
+    public int rows;
+
+    private TableModel model;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(5);
+        model = new TableModel();
+        model.setRowCount(rows);
+        model.setColumnCount(COLUMNS);
+        model.setBorderWidth(2);
+        model.setRowHeight(48);
+        model.setColumnWidth(120);
+        int[] rowHeights = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            rowHeights[i] = random.nextInt(4) == 0 ? 32 + random.nextInt(64) : -1;
+        }
+        int[] columnWidths = new int[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            columnWidths[i] = random.nextInt(3) == 0 ? 80 + random.nextInt(200) : -1;
+        }
+        model.setRowHeights(rowHeights);
+        model.setColumnWidths(columnWidths);
+        for (int r = 0; r < rows; r += 2) {
+            for (int c = 0; c < COLUMNS; c += 2) {
+                int kind = random.nextInt(4);
+                if (kind == 0) {
+                    continue;
+                }
+                int rowSpan = 1;
+                int colSpan = 1;
+                if (kind != 2) {
+                    rowSpan = Math.min(2, rows - r);
+                    colSpan = 1 + random.nextInt(2);
+                }
+                int gravity = kind != 1 ? GRAVITY_LEFT_TOP : TableModel.DEFAULT_GRAVITY;
+                model.getCells().add(new TableModel.Cell(r, c, rowSpan, colSpan, gravity));
+            }
+        }
+    }
+
+    @Benchmark
+    public TableModel binaryRoundTrip() throws IOException {
+        return TableModelCodec.fromByteArray(TableModelCodec.toByteArray(model));
+    }
+
+    @Benchmark
+    public TableModel serializableRoundTrip() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(model);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        try {
+            return (TableModel) in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.jeffery.tablelayout.benchmark;
+
+import com.github.jeffery.tablelayout.engine.TableGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 触摸坐标到单元格的查找：行列二分查找和合并区域查找
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HitTestBenchmark {
+
+    @Benchmark
+    public long hitTest(TableFixture table) {
+        int i = table.next();
+        return TableGeometry.hitTest(table.rows, table.columns, table.spans, table.queryX[i], table.queryY[i]);
+    }
+
+    @Benchmark
+    public int rowAt(TableFixture table) {
+        return table.rows.indexAt(table.queryY[table.next()]);
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.jeffery.tablelayout.benchmark;
+
+import com.github.jeffery.tablelayout.engine.BorderGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 布局计算：修改行高后重新计算所有行的坐标，以及一屏(30行x8列)内边框线段的计算
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class LayoutBenchmark {
+
+    private static final int VISIBLE_ROWS = 30;
+    private static final int VISIBLE_COLUMNS = 8;
+
+    private final BorderGeometry geometry = new BorderGeometry();
+    private int resizeCount;
+
+    @Benchmark
+    public int resizeRowAndRelayout(TableFixture table) {
+        int row = table.queryRow[table.next()];
+        //行高每次都变化，坐标需要重新计算
+        table.rows.setSize(row, TableFixture.ROW_HEIGHT + (++resizeCount & 0xff));
+        return table.rows.getTotalSize();
+    }
+
+    @Benchmark
+    public int rowOffset(TableFixture table) {
+        return table.rows.offsetOf(table.queryRow[table.next()]);
+    }
+
+    @Benchmark
+    public int borderGeometry(TableFixture table) {
+        int i = table.next();
+        int firstRow = Math.max(0, Math.min(table.queryRow[i], table.rowCount - VISIBLE_ROWS));
+        int firstColumn = Math.max(0, Math.min(table.queryColumn[i], table.columnCount - VISIBLE_COLUMNS));
+        geometry.invalidate();
+        geometry.update(table.spans, table.rows, table.columns,
+                firstRow, Math.min(firstRow + VISIBLE_ROWS, table.rowCount) - 1,
+                firstColumn, Math.min(firstColumn + VISIBLE_COLUMNS, table.columnCount) - 1);
+        return geometry.getLineLength();
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.jeffery.tablelayout.benchmark;
+
+import com.github.jeffery.tablelayout.engine.SpanIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 合并一个3x3的区域(与已有合并区域重叠时扩展并吸收它们)再取消合并，最后恢复被吸收的合并区域，
+ * 每次调用后表格状态不变
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MergeBenchmark {
+
+    private static final int SIZE = 3;
+
+    private final List<SpanIndex.Span> absorbed = new ArrayList<>();
+
+    @Benchmark
+    public SpanIndex.Span mergeAndUnmerge(TableFixture table) {
+        int i = table.next();
+        int row = Math.min(table.queryRow[i], table.rowCount - SIZE);
+        int column = Math.min(table.queryColumn[i], table.columnCount - SIZE);
+        SpanIndex spans = table.spans;
+        SpanIndex.Span region = spans.expandToCover(row, column, SIZE, SIZE);
+        absorbed.clear();
+        spans.removeWithin(region.row, region.col, region.rowSpan, region.colSpan, absorbed);
+        spans.put(region.row, region.col, region.rowSpan, region.colSpan);
+        spans.remove(region.row, region.col);
+        for (int j = 0, n = absorbed.size(); j < n; j++) {
+            SpanIndex.Span span = absorbed.get(j);
+            spans.put(span.row, span.col, span.rowSpan, span.colSpan);
+        }
+        return region;
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.jeffery.tablelayout.benchmark;
+
+import com.github.jeffery.tablelayout.engine.CellIndex;
+import com.github.jeffery.tablelayout.engine.SpanIndex;
+import com.github.jeffery.tablelayout.engine.TableAxis;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * 基准测试使用的表格：最多100列，每10行有一行单独设置行高，每10x10个格子有一个2x2的合并单元格，
+ * 所有格子都有布局属性。查询使用预先生成的随机坐标，避免测量随机数的开销
+ */
+@State(Scope.Benchmark)
+public class TableFixture {
+
+    static final int ROW_HEIGHT = 60;
+    static final int COLUMN_WIDTH = 200;
+    static final int BORDER_WIDTH = 2;
+    private static final int QUERY_COUNT = 4096;
+    private static final Object CELL = new Object();
+
+    /**
+     * 格子数量
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int cells;
+
+    int rowCount;
+    int columnCount;
+    TableAxis rows;
+    TableAxis columns;
+    SpanIndex spans;
+    CellIndex<Object> cellData;
+    /**
+     * 随机的内容坐标和行列
+     */
+    int[] queryX;
+    int[] queryY;
+    int[] queryRow;
+    int[] queryColumn;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        columnCount = Math.min(cells, 100);
+        rowCount = cells / columnCount;
+        rows = new TableAxis();
+        rows.setCount(rowCount);
+        rows.setDefaultSize(ROW_HEIGHT);
+        rows.setBorderWidth(BORDER_WIDTH);
+        for (int r = 0; r < rowCount; r += 10) {
+            rows.setSize(r, ROW_HEIGHT * 3 / 2);
+        }
+        columns = new TableAxis();
+        columns.setCount(columnCount);
+        columns.setDefaultSize(COLUMN_WIDTH);
+        columns.setBorderWidth(BORDER_WIDTH);
+
+        spans = new SpanIndex();
+        for (int r = 0; r + 1 < rowCount; r += 10) {
+            for (int c = 0; c + 1 < columnCount; c += 10) {
+                spans.put(r, c, 2, 2);
+            }
+        }
+        cellData = new CellIndex<>(rowCount * columnCount);
+        for (int r = 0; r < rowCount; r++) {
+            for (int c = 0; c < columnCount; c++) {
+                cellData.put(r, c, CELL);
+            }
+        }
+
+        Random random = new Random(42);
+        int width = columns.getTotalSize();
+        int height = rows.getTotalSize();
+        queryX = new int[QUERY_COUNT];
+        queryY = new int[QUERY_COUNT];
+        queryRow = new int[QUERY_COUNT];
+        queryColumn = new int[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queryX[i] = random.nextInt(width);
+            queryY[i] = random.nextInt(height);
+            queryRow[i] = random.nextInt(rowCount);
+            queryColumn[i] = random.nextInt(columnCount);
+        }
+    }
+
+    /**
+     * 下一个查询的下标
+     */
+    int next() {
+        next = (next + 1) & (QUERY_COUNT - 1);
+        return next;
+    }
+}
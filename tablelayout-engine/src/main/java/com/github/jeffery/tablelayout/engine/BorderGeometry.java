@@ -0,0 +1,146 @@
+package com.github.jeffery.tablelayout.engine;
+
+/**
+ * 表格内边框线段的缓存
+ * <p>
+ * 线段以 x0,y0,x1,y1 的形式保存在float数组中，可以直接用于Canvas.drawLines批量绘制。
+ * 合并单元格内部的线段会被跳过，相邻的线段合并为一条。
+ * 缓存的区域比可见区域各方向多出一屏，只有行列数、行高列宽、边框大小({@link TableAxis})、合并单元格发生变化，
+ * 或可见区域移出缓存区域时才重新计算。
+ */
+public final class BorderGeometry {
+
+    private float[] lines = new float[64];
+    private int lineLength = 0;
+    private int rebuildCount = 0;
+    private boolean valid = false;
+
+    private TableAxis rows;
+    private TableAxis columns;
+    private int rowModCount;
+    private int columnModCount;
+    private int spanModCount;
+    private int firstRow;
+    private int lastRow;
+    private int firstColumn;
+    private int lastColumn;
+
+    /**
+     * 确保缓存覆盖指定的可见区域
+     *
+     * @return 是否重新计算了线段
+     */
+    public boolean update(SpanIndex spans, TableAxis rows, TableAxis columns,
+                          int firstRow, int lastRow, int firstColumn, int lastColumn) {
+        if (valid
+                && this.rows == rows
+                && this.columns == columns
+                && this.rowModCount == rows.getModCount()
+                && this.columnModCount == columns.getModCount()
+                && this.spanModCount == spans.getModCount()
+                && firstRow >= this.firstRow && lastRow <= this.lastRow
+                && firstColumn >= this.firstColumn && lastColumn <= this.lastColumn) {
+            return false;
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.rowModCount = rows.getModCount();
+        this.columnModCount = columns.getModCount();
+        this.spanModCount = spans.getModCount();
+        //多缓存一屏，小范围滑动时不需要重新计算
+        int visibleRows = lastRow - firstRow + 1;
+        int visibleColumns = lastColumn - firstColumn + 1;
+        this.firstRow = Math.max(0, firstRow - visibleRows);
+        this.lastRow = Math.min(rows.getCount() - 1, lastRow + visibleRows);
+        this.firstColumn = Math.max(0, firstColumn - visibleColumns);
+        this.lastColumn = Math.min(columns.getCount() - 1, lastColumn + visibleColumns);
+        rebuild(spans, rows, columns);
+        valid = true;
+        rebuildCount++;
+        return true;
+    }
+
+    private void rebuild(SpanIndex spans, TableAxis rows, TableAxis columns) {
+        lineLength = 0;
+        int borderWidth = rows.getBorderWidth();
+        float offset = borderWidth / 2f;
+        //横线
+        for (int i = Math.max(1, firstRow); i <= lastRow; i++) {
+            float y = rows.offsetOf(i) + offset;
+            int runStart = -1;
+            for (int c = firstColumn; c <= lastColumn + 1; c++) {
+                if (c <= lastColumn && !isInsideSpan(spans, i - 1, c, i, c)) {
+                    if (runStart < 0) {
+                        runStart = c;
+                    }
+                } else if (runStart >= 0) {
+                    addLine(columns.offsetOf(runStart), y, columns.offsetOf(c) + borderWidth, y);
+                    runStart = -1;
+                }
+            }
+        }
+        //竖线
+        for (int i = Math.max(1, firstColumn); i <= lastColumn; i++) {
+            float x = columns.offsetOf(i) + offset;
+            int runStart = -1;
+            for (int r = firstRow; r <= lastRow + 1; r++) {
+                if (r <= lastRow && !isInsideSpan(spans, r, i - 1, r, i)) {
+                    if (runStart < 0) {
+                        runStart = r;
+                    }
+                } else if (runStart >= 0) {
+                    addLine(x, rows.offsetOf(runStart), x, rows.offsetOf(r) + borderWidth);
+                    runStart = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * 两个相邻格子是否在同一个合并单元格内，是则它们之间的边框不需要绘制
+     */
+    private static boolean isInsideSpan(SpanIndex spans, int row1, int col1, int row2, int col2) {
+        SpanIndex.Span span = spans.find(row2, col2);
+        return span != null && span.contains(row1, col1);
+    }
+
+    private void addLine(float x0, float y0, float x1, float y1) {
+        if (lineLength + 4 > lines.length) {
+            float[] newLines = new float[lines.length * 2];
+            System.arraycopy(lines, 0, newLines, 0, lineLength);
+            lines = newLines;
+        }
+        lines[lineLength++] = x0;
+        lines[lineLength++] = y0;
+        lines[lineLength++] = x1;
+        lines[lineLength++] = y1;
+    }
+
+    /**
+     * 使缓存失效，下次{@link #update}时重新计算
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * 线段数组，有效长度为{@link #getLineLength()}
+     */
+    public float[] getLines() {
+        return lines;
+    }
+
+    /**
+     * 线段数组中有效的float个数，每条线段占4个
+     */
+    public int getLineLength() {
+        return lineLength;
+    }
+
+    /**
+     * 线段重新计算的次数
+     */
+    public int getRebuildCount() {
+        return rebuildCount;
+    }
+}
@@ -0,0 +1,249 @@
+package com.github.jeffery.tablelayout.engine;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 以(行,列)为键的稀疏单元格索引
+ * <p>
+ * 键为 row &lt;&lt; 32 | col 打包成的long，采用开放寻址(线性探测)存储，
+ * get/put/remove 过程中不产生装箱对象和字符串，不会分配内存。
+ * 删除采用墓碑标记，遍历过程中删除是安全的。
+ * <p>
+ * 遍历方式：
+ * <pre>
+ * for (int i = 0, n = index.capacity(); i &lt; n; i++) {
+ *     V v = index.valueAt(i);
+ *     if (v != null) { ... }
+ * }
+ * </pre>
+ * 非线程安全，只能在同一线程内访问。
+ */
+public final class CellIndex<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    /**
+     * 已删除槽位的标记
+     */
+    private static final Object DELETED = new Object();
+
+    private long[] keys;
+    private Object[] values;
+    /**
+     * 有效元素个数
+     */
+    private int size;
+    /**
+     * 有效元素与墓碑的总数，超过阈值时扩容或重建
+     */
+    private int used;
+
+    public CellIndex() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CellIndex(int expectedSize) {
+        int capacity = tableSizeFor(Math.max(expectedSize, 1) * 2);
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    private CellIndex(CellIndex<V> source) {
+        keys = source.keys.clone();
+        values = source.values.clone();
+        size = source.size;
+        used = source.used;
+    }
+
+    /**
+     * 浅拷贝，值对象本身不会被复制，耗时与容量成正比且不需要重新计算哈希
+     */
+    public CellIndex<V> copy() {
+        return new CellIndex<>(this);
+    }
+
+    /**
+     * 将行列打包为long键
+     */
+    public static long pack(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    public static int unpackRow(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int unpackCol(long key) {
+        return (int) key;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int row, int col) {
+        long key = pack(row, col);
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        Object v;
+        while ((v = values[i]) != null) {
+            if (v != DELETED && keys[i] == key) {
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(int row, int col) {
+        return get(row, col) != null;
+    }
+
+    /**
+     * 添加或替换
+     *
+     * @param value 不能为null，删除请使用{@link #remove(int, int)}
+     * @return 之前的值，没有则为null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int row, int col, V value) {
+        if (value == null) {
+            throw new NullPointerException("value == null");
+        }
+        long key = pack(row, col);
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        int firstDeleted = -1;
+        Object v;
+        while ((v = values[i]) != null) {
+            if (v == DELETED) {
+                if (firstDeleted < 0) {
+                    firstDeleted = i;
+                }
+            } else if (keys[i] == key) {
+                values[i] = value;
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+        if (firstDeleted >= 0) {
+            i = firstDeleted;
+        } else {
+            used++;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        if (used * 4 >= keys.length * 3) {
+            rehash(size * 4 >= keys.length ? keys.length * 2 : keys.length);
+        }
+        return null;
+    }
+
+    /**
+     * 删除
+     *
+     * @return 被删除的值，没有则为null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int row, int col) {
+        long key = pack(row, col);
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        Object v;
+        while ((v = values[i]) != null) {
+            if (v != DELETED && keys[i] == key) {
+                values[i] = DELETED;
+                size--;
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        if (used > 0) {
+            Arrays.fill(values, null);
+            size = 0;
+            used = 0;
+        }
+    }
+
+    /**
+     * 槽位数量，用于配合{@link #valueAt(int)}遍历
+     */
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * 获取槽位上的值
+     *
+     * @return 空槽位返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int slot) {
+        Object v = values[slot];
+        return v == DELETED ? null : (V) v;
+    }
+
+    /**
+     * 获取槽位上的键，仅在{@link #valueAt(int)}不为null时有效
+     */
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * 将所有值添加到集合中
+     */
+    public <C extends Collection<? super V>> C values(C out) {
+        for (int i = 0; i < values.length; i++) {
+            V v = valueAt(i);
+            if (v != null) {
+                out.add(v);
+            }
+        }
+        return out;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[newCapacity];
+        values = new Object[newCapacity];
+        int mask = newCapacity - 1;
+        for (int j = 0; j < oldValues.length; j++) {
+            Object v = oldValues[j];
+            if (v == null || v == DELETED) {
+                continue;
+            }
+            int i = hash(oldKeys[j]) & mask;
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = v;
+        }
+        used = size;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < n) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,250 @@
+package com.github.jeffery.tablelayout.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 以矩形区域保存的单元格选区
+ * <p>
+ * 选区由互不重叠的矩形组成，添加、删除、查询的耗时与矩形个数成正比，与选中的格子数量无关。
+ * 矩形互不重叠，绘制时每个矩形只需要绘制一次，半透明的背景色也不会叠加。
+ */
+public final class CellSelection {
+
+    /**
+     * 一个选中的矩形区域
+     */
+    public static final class Range {
+        public final int row;
+        public final int col;
+        public final int rowSpan;
+        public final int colSpan;
+
+        public Range(int row, int col, int rowSpan, int colSpan) {
+            this.row = row;
+            this.col = col;
+            this.rowSpan = rowSpan;
+            this.colSpan = colSpan;
+        }
+
+        public boolean contains(int row, int col) {
+            return row >= this.row && row < this.row + rowSpan
+                    && col >= this.col && col < this.col + colSpan;
+        }
+
+        public boolean intersects(int row, int col, int rowSpan, int colSpan) {
+            return row < this.row + this.rowSpan && this.row < row + rowSpan
+                    && col < this.col + this.colSpan && this.col < col + colSpan;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Range range = (Range) o;
+            return row == range.row && col == range.col && rowSpan == range.rowSpan && colSpan == range.colSpan;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((row * 31 + col) * 31 + rowSpan) * 31 + colSpan;
+        }
+
+        @Override
+        public String toString() {
+            return "Range{" + row + "," + col + " " + rowSpan + "x" + colSpan + "}";
+        }
+    }
+
+    private final ArrayList<Range> ranges = new ArrayList<>();
+    private int modCount = 0;
+
+    public CellSelection() {
+    }
+
+    public CellSelection(CellSelection source) {
+        ranges.addAll(source.ranges);
+    }
+
+    /**
+     * 添加矩形区域，与已有区域重叠的部分不会重复保存
+     */
+    public void add(int row, int col, int rowSpan, int colSpan) {
+        if (rowSpan <= 0 || colSpan <= 0) {
+            return;
+        }
+        List<Range> pieces = new ArrayList<>();
+        pieces.add(new Range(row, col, rowSpan, colSpan));
+        for (int i = 0, n = ranges.size(); i < n && !pieces.isEmpty(); i++) {
+            Range existing = ranges.get(i);
+            List<Range> remaining = new ArrayList<>(pieces.size());
+            for (Range piece : pieces) {
+                subtract(piece, existing, remaining);
+            }
+            pieces = remaining;
+        }
+        if (!pieces.isEmpty()) {
+            ranges.addAll(pieces);
+            modCount++;
+        }
+    }
+
+    /**
+     * 从选区中删除矩形区域
+     */
+    public void remove(int row, int col, int rowSpan, int colSpan) {
+        if (rowSpan <= 0 || colSpan <= 0) {
+            return;
+        }
+        Range removed = new Range(row, col, rowSpan, colSpan);
+        boolean changed = false;
+        for (int i = ranges.size() - 1; i >= 0; i--) {
+            Range existing = ranges.get(i);
+            if (existing.intersects(row, col, rowSpan, colSpan)) {
+                ranges.remove(i);
+                subtract(existing, removed, ranges);
+                changed = true;
+            }
+        }
+        if (changed) {
+            modCount++;
+        }
+    }
+
+    /**
+     * 矩形区域已全部选中时取消选中，否则全部选中
+     *
+     * @return 操作后该区域是否为选中状态
+     */
+    public boolean toggle(int row, int col, int rowSpan, int colSpan) {
+        if (containsAll(row, col, rowSpan, colSpan)) {
+            remove(row, col, rowSpan, colSpan);
+            return false;
+        }
+        add(row, col, rowSpan, colSpan);
+        return true;
+    }
+
+    /**
+     * 替换为另一个选区的内容
+     */
+    public void set(CellSelection source) {
+        ranges.clear();
+        ranges.addAll(source.ranges);
+        modCount++;
+    }
+
+    public void selectAll(int rowCount, int columnCount) {
+        ranges.clear();
+        if (rowCount > 0 && columnCount > 0) {
+            ranges.add(new Range(0, 0, rowCount, columnCount));
+        }
+        modCount++;
+    }
+
+    public void selectRow(int row, int columnCount) {
+        add(row, 0, 1, columnCount);
+    }
+
+    public void selectColumn(int column, int rowCount) {
+        add(0, column, rowCount, 1);
+    }
+
+    public boolean contains(int row, int col) {
+        for (int i = 0, n = ranges.size(); i < n; i++) {
+            if (ranges.get(i).contains(row, col)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 矩形区域是否全部被选中
+     */
+    public boolean containsAll(int row, int col, int rowSpan, int colSpan) {
+        long covered = 0;
+        for (int i = 0, n = ranges.size(); i < n; i++) {
+            Range r = ranges.get(i);
+            int top = Math.max(r.row, row);
+            int bottom = Math.min(r.row + r.rowSpan, row + rowSpan);
+            int left = Math.max(r.col, col);
+            int right = Math.min(r.col + r.colSpan, col + colSpan);
+            if (top < bottom && left < right) {
+                covered += (long) (bottom - top) * (right - left);
+            }
+        }
+        //区域互不重叠，覆盖面积等于矩形面积即全部选中
+        return covered == (long) rowSpan * colSpan;
+    }
+
+    public void clear() {
+        if (!ranges.isEmpty()) {
+            ranges.clear();
+            modCount++;
+        }
+    }
+
+    public boolean isEmpty() {
+        return ranges.isEmpty();
+    }
+
+    public int getRangeCount() {
+        return ranges.size();
+    }
+
+    public Range getRange(int index) {
+        return ranges.get(index);
+    }
+
+    /**
+     * 选中的格子数量
+     */
+    public long getCellCount() {
+        long count = 0;
+        for (int i = 0, n = ranges.size(); i < n; i++) {
+            Range r = ranges.get(i);
+            count += (long) r.rowSpan * r.colSpan;
+        }
+        return count;
+    }
+
+    /**
+     * 修改次数，用于判断依赖选区的缓存是否失效
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * a减去b，结果最多为4个矩形(上、下、左、右)
+     */
+    public static void subtract(Range a, Range b, List<Range> out) {
+        if (!a.intersects(b.row, b.col, b.rowSpan, b.colSpan)) {
+            out.add(a);
+            return;
+        }
+        int aBottom = a.row + a.rowSpan;
+        int aRight = a.col + a.colSpan;
+        int top = Math.max(a.row, b.row);
+        int bottom = Math.min(aBottom, b.row + b.rowSpan);
+        if (a.row < top) {
+            out.add(new Range(a.row, a.col, top - a.row, a.colSpan));
+        }
+        if (bottom < aBottom) {
+            out.add(new Range(bottom, a.col, aBottom - bottom, a.colSpan));
+        }
+        int left = Math.max(a.col, b.col);
+        int right = Math.min(aRight, b.col + b.colSpan);
+        if (a.col < left) {
+            out.add(new Range(top, a.col, bottom - top, left - a.col));
+        }
+        if (right < aRight) {
+            out.add(new Range(top, right, bottom - top, aRight - right));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.github.jeffery.tablelayout.engine;
+
+import java.util.Collection;
+
+/**
+ * 合并单元格的占用索引
+ * <p>
+ * 合并区域内的每个格子都指向同一个{@link Span}，
+ * 因此任意(行,列)都可以在常数时间内找到其所属的合并单元格(左上角的锚点格子)。
+ * 添加/删除一个合并区域的耗时与该区域的面积成正比，
+ * 查找与某个矩形相交的合并区域({@link #expandToCover})耗时与矩形周长成正比。
+ */
+public final class SpanIndex {
+
+    /**
+     * 一个合并区域
+     */
+    public static final class Span {
+        public final int row;
+        public final int col;
+        public final int rowSpan;
+        public final int colSpan;
+
+        Span(int row, int col, int rowSpan, int colSpan) {
+            this.row = row;
+            this.col = col;
+            this.rowSpan = rowSpan;
+            this.colSpan = colSpan;
+        }
+
+        public boolean contains(int row, int col) {
+            return row >= this.row && row < this.row + rowSpan
+                    && col >= this.col && col < this.col + colSpan;
+        }
+    }
+
+    private final CellIndex<Span> coverage;
+    private final CellIndex<Span> anchors;
+    /**
+     * 修改次数，用于判断依赖合并区域的缓存是否失效
+     */
+    private int modCount = 0;
+
+    public SpanIndex() {
+        coverage = new CellIndex<>();
+        anchors = new CellIndex<>();
+    }
+
+    private SpanIndex(SpanIndex source) {
+        coverage = source.coverage.copy();
+        anchors = source.anchors.copy();
+    }
+
+    /**
+     * 复制索引，{@link Span}不可变，可以在副本间共享
+     */
+    public SpanIndex copy() {
+        return new SpanIndex(this);
+    }
+
+    /**
+     * 查找覆盖该格子的合并区域
+     *
+     * @return 格子不在任何合并区域内时返回null
+     */
+    public Span find(int row, int col) {
+        return coverage.get(row, col);
+    }
+
+    /**
+     * 获取以该格子为锚点的合并区域
+     */
+    public Span get(int row, int col) {
+        return anchors.get(row, col);
+    }
+
+    /**
+     * 添加或替换以(row,col)为锚点的合并区域，跨度为1x1时等同于删除
+     *
+     * @return 新的合并区域，跨度为1x1时返回null
+     */
+    public Span put(int row, int col, int rowSpan, int colSpan) {
+        Span old = anchors.get(row, col);
+        if (old != null && old.rowSpan == rowSpan && old.colSpan == colSpan) {
+            return old;
+        }
+        remove(row, col);
+        if (rowSpan <= 1 && colSpan <= 1) {
+            return null;
+        }
+        Span span = new Span(row, col, Math.max(rowSpan, 1), Math.max(colSpan, 1));
+        anchors.put(row, col, span);
+        modCount++;
+        for (int r = row, rowEnd = row + span.rowSpan; r < rowEnd; r++) {
+            for (int c = col, colEnd = col + span.colSpan; c < colEnd; c++) {
+                coverage.put(r, c, span);
+            }
+        }
+        return span;
+    }
+
+    /**
+     * 删除以(row,col)为锚点的合并区域
+     *
+     * @return 被删除的合并区域，没有则为null
+     */
+    public Span remove(int row, int col) {
+        Span span = anchors.remove(row, col);
+        if (span == null) {
+            return null;
+        }
+        modCount++;
+        for (int r = row, rowEnd = row + span.rowSpan; r < rowEnd; r++) {
+            for (int c = col, colEnd = col + span.colSpan; c < colEnd; c++) {
+                //只删除仍属于该区域的格子
+                if (coverage.get(r, c) == span) {
+                    coverage.remove(r, c);
+                }
+            }
+        }
+        return span;
+    }
+
+    /**
+     * 将区域扩展为能完整包含所有与之相交的合并区域的最小矩形
+     * <p>
+     * 与矩形相交但未被完全包含的合并区域一定覆盖矩形边缘的格子，因此每轮只检查边缘，
+     * 耗时与扩展后矩形的周长成正比。
+     *
+     * @return 扩展后的区域(未添加到索引中)
+     */
+    public Span expandToCover(int row, int col, int rowSpan, int colSpan) {
+        int top = row;
+        int left = col;
+        int bottom = row + Math.max(rowSpan, 1);
+        int right = col + Math.max(colSpan, 1);
+        while (true) {
+            int newTop = top;
+            int newLeft = left;
+            int newBottom = bottom;
+            int newRight = right;
+            for (int i = 0; i < 4; i++) {
+                //依次检查上、下、左、右边缘
+                boolean horizontal = i < 2;
+                int fixed = i == 0 ? top : i == 1 ? bottom - 1 : i == 2 ? left : right - 1;
+                int from = horizontal ? left : top;
+                int to = horizontal ? right : bottom;
+                for (int j = from; j < to; j++) {
+                    Span span = horizontal ? coverage.get(fixed, j) : coverage.get(j, fixed);
+                    if (span != null) {
+                        newTop = Math.min(newTop, span.row);
+                        newLeft = Math.min(newLeft, span.col);
+                        newBottom = Math.max(newBottom, span.row + span.rowSpan);
+                        newRight = Math.max(newRight, span.col + span.colSpan);
+                    }
+                }
+            }
+            if (newTop == top && newLeft == left && newBottom == bottom && newRight == right) {
+                return new Span(top, left, bottom - top, right - left);
+            }
+            top = newTop;
+            left = newLeft;
+            bottom = newBottom;
+            right = newRight;
+        }
+    }
+
+    /**
+     * 区域内是否有合并区域，耗时与区域面积成正比
+     */
+    public boolean intersects(int row, int col, int rowSpan, int colSpan) {
+        for (int r = row, rowEnd = row + rowSpan; r < rowEnd; r++) {
+            for (int c = col, colEnd = col + colSpan; c < colEnd; c++) {
+                if (coverage.get(r, c) != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 删除锚点在区域内的所有合并区域，耗时与区域面积成正比
+     *
+     * @param removed 被删除的合并区域，可以为null
+     * @return 删除的个数
+     */
+    public int removeWithin(int row, int col, int rowSpan, int colSpan, Collection<Span> removed) {
+        int count = 0;
+        for (int r = row, rowEnd = row + rowSpan; r < rowEnd; r++) {
+            for (int c = col, colEnd = col + colSpan; c < colEnd; c++) {
+                Span span = anchors.get(r, c);
+                if (span != null) {
+                    remove(r, c);
+                    if (removed != null) {
+                        removed.add(span);
+                    }
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 合并区域数量
+     */
+    public int size() {
+        return anchors.size();
+    }
+
+    public int getModCount() {
+        return modCount;
+    }
+
+    public void clear() {
+        if (!anchors.isEmpty()) {
+            modCount++;
+        }
+        anchors.clear();
+        coverage.clear();
+    }
+}
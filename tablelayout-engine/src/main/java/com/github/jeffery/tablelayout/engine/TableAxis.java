@@ -0,0 +1,297 @@
+package com.github.jeffery.tablelayout.engine;
+
+import java.util.Arrays;
+
+/**
+ * 表格一个方向(行或列)上的尺寸与坐标
+ * <p>
+ * 每一行(列)可以单独设置尺寸，或使用根据内容测量出的尺寸，都没有时使用默认尺寸。坐标保存在前缀和数组中，
+ * 索引到坐标为O(1)，坐标到索引为O(log n)的二分查找。
+ * 每个格子前后各有一条边框，第i格的内容区域为[{@link #startOf(int)}, {@link #endOf(int)})。
+ */
+public final class TableAxis {
+
+    private int count = 0;
+    private int defaultSize = 0;
+    private int borderWidth = 0;
+    /**
+     * 单独设置的尺寸，小于0表示未设置
+     */
+    private int[] sizes = new int[0];
+    /**
+     * 根据内容测量出的尺寸，小于0表示未测量，优先级低于单独设置的尺寸
+     */
+    private int[] measuredSizes = new int[0];
+    private int explicitCount = 0;
+    private long explicitSum = 0;
+    private boolean statsDirty = false;
+    /**
+     * offsets[i]为第i格前边框的起始坐标，长度为count+1
+     */
+    private int[] offsets = new int[1];
+    private boolean dirty = true;
+    private int modCount = 0;
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        count = Math.max(count, 0);
+        if (this.count == count) {
+            return;
+        }
+        sizes = ensureLength(sizes, count);
+        measuredSizes = ensureLength(measuredSizes, count);
+        this.count = count;
+        markDirty(true);
+    }
+
+    public int getDefaultSize() {
+        return defaultSize;
+    }
+
+    public void setDefaultSize(int defaultSize) {
+        defaultSize = Math.max(defaultSize, 0);
+        if (this.defaultSize != defaultSize) {
+            this.defaultSize = defaultSize;
+            markDirty(false);
+        }
+    }
+
+    public int getBorderWidth() {
+        return borderWidth;
+    }
+
+    public void setBorderWidth(int borderWidth) {
+        if (this.borderWidth != borderWidth) {
+            this.borderWidth = borderWidth;
+            markDirty(false);
+        }
+    }
+
+    /**
+     * 单独设置某一格的尺寸
+     *
+     * @param size 尺寸，小于0时恢复为默认尺寸
+     */
+    public void setSize(int index, int size) {
+        if (index < 0 || (index >= sizes.length && size < 0)) {
+            return;
+        }
+        sizes = ensureLength(sizes, index + 1);
+        size = Math.max(size, -1);
+        if (sizes[index] != size) {
+            sizes[index] = size;
+            if (index < count) {
+                markDirty(true);
+            }
+        }
+    }
+
+    /**
+     * 获取单独设置的尺寸
+     *
+     * @return 未设置时返回-1
+     */
+    public int getConfiguredSize(int index) {
+        return index >= 0 && index < sizes.length ? sizes[index] : -1;
+    }
+
+    /**
+     * 清除所有单独设置的尺寸
+     */
+    public void clearSizes() {
+        Arrays.fill(sizes, -1);
+        markDirty(true);
+    }
+
+    /**
+     * 设置根据内容测量出的尺寸，单独设置了尺寸的格子不受影响
+     *
+     * @param size 尺寸，小于0时清除
+     */
+    public void setMeasuredSize(int index, int size) {
+        if (index < 0 || index >= count) {
+            return;
+        }
+        size = Math.max(size, -1);
+        if (measuredSizes[index] != size) {
+            measuredSizes[index] = size;
+            markDirty(true);
+        }
+    }
+
+    /**
+     * @return 未测量时返回-1
+     */
+    public int getMeasuredSize(int index) {
+        return index >= 0 && index < count ? measuredSizes[index] : -1;
+    }
+
+    /**
+     * 清除所有根据内容测量出的尺寸
+     */
+    public void clearMeasuredSizes() {
+        for (int i = 0; i < count; i++) {
+            if (measuredSizes[i] >= 0) {
+                measuredSizes[i] = -1;
+                markDirty(true);
+            }
+        }
+    }
+
+    /**
+     * 单独设置或根据内容测量了尺寸的格子数量
+     */
+    public int getExplicitCount() {
+        ensureStats();
+        return explicitCount;
+    }
+
+    /**
+     * 单独设置或根据内容测量的尺寸之和
+     */
+    public long getExplicitSum() {
+        ensureStats();
+        return explicitSum;
+    }
+
+    public int sizeOf(int index) {
+        if (index >= 0 && index < count) {
+            if (sizes[index] >= 0) {
+                return sizes[index];
+            }
+            if (measuredSizes[index] >= 0) {
+                return measuredSizes[index];
+            }
+        }
+        return defaultSize;
+    }
+
+    /**
+     * 第index格前边框的起始坐标，超出范围时按默认尺寸推算
+     */
+    public int offsetOf(int index) {
+        ensureOffsets();
+        if (index <= 0) {
+            return index * (defaultSize + borderWidth);
+        }
+        if (index <= count) {
+            return offsets[index];
+        }
+        return offsets[count] + (index - count) * (defaultSize + borderWidth);
+    }
+
+    /**
+     * 第index格内容区域的起始坐标
+     */
+    public int startOf(int index) {
+        return offsetOf(index) + borderWidth;
+    }
+
+    /**
+     * 第index格内容区域的结束坐标
+     */
+    public int endOf(int index) {
+        return offsetOf(index + 1);
+    }
+
+    /**
+     * 从index开始跨span格的内容区域尺寸(包含内部的边框)
+     */
+    public int spanSize(int index, int span) {
+        return offsetOf(index + Math.max(span, 1)) - offsetOf(index) - borderWidth;
+    }
+
+    /**
+     * 包含所有边框的总尺寸
+     */
+    public int getTotalSize() {
+        if (count == 0) {
+            return 0;
+        }
+        ensureOffsets();
+        return offsets[count] + borderWidth;
+    }
+
+    /**
+     * 查找坐标所在的格子，坐标落在边框上时属于其后的格子
+     *
+     * @return 格子索引，超出范围时返回最近的格子，没有格子时返回-1
+     */
+    public int indexAt(int coordinate) {
+        if (count == 0) {
+            return -1;
+        }
+        ensureOffsets();
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= coordinate) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 尺寸或坐标的修改次数，用于判断依赖坐标的缓存是否失效
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    private void markDirty(boolean stats) {
+        dirty = true;
+        statsDirty |= stats;
+        modCount++;
+    }
+
+    private void ensureStats() {
+        if (!statsDirty) {
+            return;
+        }
+        int explicitCount = 0;
+        long explicitSum = 0;
+        for (int i = 0; i < count; i++) {
+            int size = sizes[i] >= 0 ? sizes[i] : measuredSizes[i];
+            if (size >= 0) {
+                explicitCount++;
+                explicitSum += size;
+            }
+        }
+        this.explicitCount = explicitCount;
+        this.explicitSum = explicitSum;
+        statsDirty = false;
+    }
+
+    private static int[] ensureLength(int[] array, int length) {
+        if (array.length >= length) {
+            return array;
+        }
+        int oldLength = array.length;
+        array = Arrays.copyOf(array, Math.max(length, oldLength * 3 / 2));
+        Arrays.fill(array, oldLength, array.length, -1);
+        return array;
+    }
+
+    private void ensureOffsets() {
+        if (!dirty) {
+            return;
+        }
+        if (offsets.length < count + 1) {
+            offsets = new int[Math.max(count + 1, offsets.length * 3 / 2)];
+        }
+        int offset = 0;
+        offsets[0] = 0;
+        for (int i = 0; i < count; i++) {
+            offset += sizeOf(i) + borderWidth;
+            offsets[i + 1] = offset;
+        }
+        dirty = false;
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.jeffery.tablelayout.engine;
+
+/**
+ * 表格的坐标计算，由行列尺寸({@link TableAxis})和合并单元格({@link SpanIndex})确定
+ */
+public final class TableGeometry {
+
+    private TableGeometry() {
+    }
+
+    /**
+     * 查找内容坐标所在的单元格，超出表格时取最近的格子，在合并区域内时返回合并区域左上角的格子
+     *
+     * @return {@link CellIndex#pack(int, int)}打包的行列
+     */
+    public static long hitTest(TableAxis rows, TableAxis columns, SpanIndex spans, int x, int y) {
+        int row = clamp(rows.indexAt(y), rows.getCount());
+        int column = clamp(columns.indexAt(x), columns.getCount());
+        SpanIndex.Span span = spans.find(row, column);
+        if (span != null) {
+            return CellIndex.pack(span.row, span.col);
+        }
+        return CellIndex.pack(row, column);
+    }
+
+    private static int clamp(int index, int count) {
+        return Math.max(0, Math.min(index, count - 1));
+    }
+}
@@ -0,0 +1,206 @@
+package com.github.jeffery.tablelayout.engine;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 表格模板：行列数、边框、行高列宽、合并单元格和对齐方式，不包含View
+ * <p>
+ * 通过TableLayout.getTableModel()获取，TableLayout.setTableModel(TableModel)恢复，
+ * 使用{@link TableModelCodec}保存为二进制格式。
+ */
+public final class TableModel implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 默认的对齐方式，与android.view.Gravity.CENTER相同
+     */
+    public static final int DEFAULT_GRAVITY = 0x11;
+
+    /**
+     * 跨度或对齐方式不是默认值的单元格
+     */
+    public static final class Cell implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int row;
+        private final int col;
+        private final int rowSpan;
+        private final int colSpan;
+        private final int gravity;
+
+        public Cell(int row, int col, int rowSpan, int colSpan, int gravity) {
+            this.row = row;
+            this.col = col;
+            this.rowSpan = rowSpan;
+            this.colSpan = colSpan;
+            this.gravity = gravity;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getCol() {
+            return col;
+        }
+
+        public int getRowSpan() {
+            return rowSpan;
+        }
+
+        public int getColSpan() {
+            return colSpan;
+        }
+
+        /**
+         * android.view.Gravity的取值
+         */
+        public int getGravity() {
+            return gravity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Cell cell = (Cell) o;
+            return row == cell.row && col == cell.col && rowSpan == cell.rowSpan
+                    && colSpan == cell.colSpan && gravity == cell.gravity;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = row;
+            result = 31 * result + col;
+            result = 31 * result + rowSpan;
+            result = 31 * result + colSpan;
+            result = 31 * result + gravity;
+            return result;
+        }
+    }
+
+    private int rowCount = 0;
+    private int columnCount = 0;
+    private int borderWidth = 0;
+    /**
+     * 固定行高列宽，0表示平分表格
+     */
+    private int rowHeight = 0;
+    private int columnWidth = 0;
+    /**
+     * 单独设置的行高列宽，-1表示未设置
+     */
+    private int[] rowHeights = new int[0];
+    private int[] columnWidths = new int[0];
+    /**
+     * 跨度或对齐方式不是默认值的单元格
+     */
+    private final List<Cell> cells = new ArrayList<>();
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public void setColumnCount(int columnCount) {
+        this.columnCount = columnCount;
+    }
+
+    public int getBorderWidth() {
+        return borderWidth;
+    }
+
+    public void setBorderWidth(int borderWidth) {
+        this.borderWidth = borderWidth;
+    }
+
+    public int getRowHeight() {
+        return rowHeight;
+    }
+
+    public void setRowHeight(int rowHeight) {
+        this.rowHeight = rowHeight;
+    }
+
+    public int getColumnWidth() {
+        return columnWidth;
+    }
+
+    public void setColumnWidth(int columnWidth) {
+        this.columnWidth = columnWidth;
+    }
+
+    /**
+     * 单独设置的行高，-1表示未设置
+     */
+    public int[] getRowHeights() {
+        return rowHeights;
+    }
+
+    public void setRowHeights(int[] rowHeights) {
+        this.rowHeights = rowHeights == null ? new int[0] : rowHeights;
+    }
+
+    /**
+     * 单独设置的列宽，-1表示未设置
+     */
+    public int[] getColumnWidths() {
+        return columnWidths;
+    }
+
+    public void setColumnWidths(int[] columnWidths) {
+        this.columnWidths = columnWidths == null ? new int[0] : columnWidths;
+    }
+
+    public List<Cell> getCells() {
+        return cells;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TableModel model = (TableModel) o;
+        if (rowCount != model.rowCount || columnCount != model.columnCount
+                || borderWidth != model.borderWidth
+                || rowHeight != model.rowHeight || columnWidth != model.columnWidth
+                || !Arrays.equals(rowHeights, model.rowHeights)
+                || !Arrays.equals(columnWidths, model.columnWidths)) {
+            return false;
+        }
+        return cells.equals(model.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = rowCount;
+        result = 31 * result + columnCount;
+        result = 31 * result + borderWidth;
+        result = 31 * result + rowHeight;
+        result = 31 * result + columnWidth;
+        result = 31 * result + Arrays.hashCode(rowHeights);
+        result = 31 * result + Arrays.hashCode(columnWidths);
+        result = 31 * result + cells.size();
+        return result;
+    }
+}
@@ -0,0 +1,328 @@
+package com.github.jeffery.tablelayout.engine;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link TableModel}的二进制编码
+ * <p>
+ * 格式(整数均为变长编码，每字节7位)：
+ * <pre>
+ * 'T' 'B' 'L' 'M'  版本(1字节)
+ * 行数 列数 边框 固定行高 固定列宽
+ * 行高数组长度 已设置个数 {索引增量 行高}...
+ * 列宽数组长度 已设置个数 {索引增量 列宽}...
+ * 单元格个数 {行增量(zigzag) 列 标记 [行跨度 列跨度] [对齐方式(zigzag)]}...
+ * </pre>
+ * 默认跨度和默认对齐方式不写入，单元格按行列顺序保存时行号增量通常只占一个字节。
+ * <p>
+ * 写入时先在内存中编码整个模板，再一次写入输出流。从输入流读取时为了不读取快照之后的数据，
+ * 每次只调用一次{@link InputStream#read()}读取一个字节，文件流需要包装为{@link java.io.BufferedInputStream}，
+ * 否则每个字节都是一次系统调用；已经在内存中的数据(或映射的文件)使用{@link #read(ByteBuffer)}。
+ * 读取时校验行列数、数组长度、单元格位置和跨度，数据损坏时抛出{@link IOException}。
+ */
+public final class TableModelCodec {
+
+    private static final byte[] MAGIC = {'T', 'B', 'L', 'M'};
+    /**
+     * 当前版本，格式变化时递增，读取时拒绝更高的版本
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * 允许的最大行数和列数，避免损坏的数据分配过大的数组
+     */
+    static final int MAX_COUNT = 1 << 24;
+
+    private static final int FLAG_SPAN = 1;
+    private static final int FLAG_GRAVITY = 1 << 1;
+
+    private TableModelCodec() {
+    }
+
+    /**
+     * 编码后一次写入输出流，不会关闭输出流
+     */
+    public static void write(TableModel model, OutputStream out) throws IOException {
+        Buffer buffer = new Buffer();
+        encode(model, buffer);
+        out.write(buffer.data, 0, buffer.length);
+    }
+
+    /**
+     * 写入缓冲区的当前位置，写入后位置移动到快照末尾
+     *
+     * @throws BufferOverflowException 剩余空间不足，此时缓冲区不变
+     */
+    public static void write(TableModel model, ByteBuffer out) {
+        Buffer buffer = new Buffer();
+        encode(model, buffer);
+        out.put(buffer.data, 0, buffer.length);
+    }
+
+    public static byte[] toByteArray(TableModel model) {
+        Buffer buffer = new Buffer();
+        encode(model, buffer);
+        return Arrays.copyOf(buffer.data, buffer.length);
+    }
+
+    /**
+     * 从输入流读取一个快照，不会读取快照之后的数据，也不会关闭输入流。
+     * 逐字节读取，文件流需要包装为{@link java.io.BufferedInputStream}
+     *
+     * @throws IOException 数据不是表格快照、版本不支持、数据不完整或数值超出范围
+     */
+    public static TableModel read(InputStream in) throws IOException {
+        return read(new StreamSource(in));
+    }
+
+    /**
+     * 从缓冲区的当前位置读取一个快照，读取后位置移动到快照末尾
+     *
+     * @throws IOException 数据不是表格快照、版本不支持、数据不完整或数值超出范围
+     */
+    public static TableModel read(ByteBuffer in) throws IOException {
+        return read(new BufferSource(in));
+    }
+
+    private static TableModel read(Source in) throws IOException {
+        for (byte b : MAGIC) {
+            if (readByte(in) != b) {
+                throw new IOException("Not a table model snapshot");
+            }
+        }
+        int version = readByte(in);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported table model version " + version);
+        }
+        TableModel model = new TableModel();
+        int rowCount = readCount(in, "row count", MAX_COUNT);
+        int columnCount = readCount(in, "column count", MAX_COUNT);
+        model.setRowCount(rowCount);
+        model.setColumnCount(columnCount);
+        model.setBorderWidth(readVarInt(in));
+        model.setRowHeight(readVarInt(in));
+        model.setColumnWidth(readVarInt(in));
+        model.setRowHeights(readSizes(in, rowCount));
+        model.setColumnWidths(readSizes(in, columnCount));
+        int count = readCount(in, "cell count", (int) Math.min((long) rowCount * columnCount, Integer.MAX_VALUE));
+        List<TableModel.Cell> cells = model.getCells();
+        int row = 0;
+        for (int i = 0; i < count; i++) {
+            row += zigzagDecode(readRawVarInt(in));
+            int col = readVarInt(in);
+            if (row < 0 || row >= rowCount || col >= columnCount) {
+                throw new IOException("Cell (" + row + ", " + col + ") out of range");
+            }
+            int flags = readByte(in);
+            int rowSpan = 1;
+            int colSpan = 1;
+            if ((flags & FLAG_SPAN) != 0) {
+                rowSpan = readVarInt(in);
+                colSpan = readVarInt(in);
+                if (rowSpan < 1 || colSpan < 1 || rowSpan > rowCount - row || colSpan > columnCount - col) {
+                    throw new IOException("Invalid span " + rowSpan + "x" + colSpan + " at (" + row + ", " + col + ")");
+                }
+            }
+            int gravity = TableModel.DEFAULT_GRAVITY;
+            if ((flags & FLAG_GRAVITY) != 0) {
+                gravity = zigzagDecode(readRawVarInt(in));
+            }
+            cells.add(new TableModel.Cell(row, col, rowSpan, colSpan, gravity));
+        }
+        return model;
+    }
+
+    public static TableModel fromByteArray(byte[] data) throws IOException {
+        return read(ByteBuffer.wrap(data));
+    }
+
+    private static void encode(TableModel model, Buffer out) {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeVarInt(model.getRowCount());
+        out.writeVarInt(model.getColumnCount());
+        out.writeVarInt(model.getBorderWidth());
+        out.writeVarInt(model.getRowHeight());
+        out.writeVarInt(model.getColumnWidth());
+        writeSizes(model.getRowHeights(), out);
+        writeSizes(model.getColumnWidths(), out);
+        List<TableModel.Cell> cells = model.getCells();
+        out.writeVarInt(cells.size());
+        int row = 0;
+        for (int i = 0, n = cells.size(); i < n; i++) {
+            TableModel.Cell cell = cells.get(i);
+            out.writeVarInt(zigzagEncode(cell.getRow() - row));
+            row = cell.getRow();
+            out.writeVarInt(cell.getCol());
+            boolean span = cell.getRowSpan() != 1 || cell.getColSpan() != 1;
+            boolean gravity = cell.getGravity() != TableModel.DEFAULT_GRAVITY;
+            out.writeByte((span ? FLAG_SPAN : 0) | (gravity ? FLAG_GRAVITY : 0));
+            if (span) {
+                out.writeVarInt(cell.getRowSpan());
+                out.writeVarInt(cell.getColSpan());
+            }
+            if (gravity) {
+                out.writeVarInt(zigzagEncode(cell.getGravity()));
+            }
+        }
+    }
+
+    private static void writeSizes(int[] sizes, Buffer out) {
+        int count = 0;
+        for (int size : sizes) {
+            if (size >= 0) {
+                count++;
+            }
+        }
+        out.writeVarInt(sizes.length);
+        out.writeVarInt(count);
+        int next = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            if (sizes[i] >= 0) {
+                out.writeVarInt(i - next);
+                out.writeVarInt(sizes[i]);
+                next = i + 1;
+            }
+        }
+    }
+
+    /**
+     * 读取行高或列宽，数组长度不超过行数或列数
+     */
+    private static int[] readSizes(Source in, int maxLength) throws IOException {
+        int[] sizes = new int[readCount(in, "size array length", maxLength)];
+        Arrays.fill(sizes, -1);
+        int count = readCount(in, "size count", sizes.length);
+        int index = 0;
+        for (int i = 0; i < count; i++) {
+            index += readVarInt(in);
+            if (index >= sizes.length) {
+                throw new IOException("Size index out of range: " + index);
+            }
+            sizes[index++] = readVarInt(in);
+        }
+        return sizes;
+    }
+
+    /**
+     * 读取不超过max的数量
+     */
+    private static int readCount(Source in, String name, int max) throws IOException {
+        int value = readVarInt(in);
+        if (value > max) {
+            throw new IOException("Invalid " + name + " " + value + ", expected at most " + max);
+        }
+        return value;
+    }
+
+    private static int zigzagEncode(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int zigzagDecode(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int readByte(Source in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Truncated table model snapshot");
+        }
+        return b;
+    }
+
+    /**
+     * 读取非负的变长整数
+     */
+    private static int readVarInt(Source in) throws IOException {
+        int value = readRawVarInt(in);
+        if (value < 0) {
+            throw new IOException("Negative value in table model snapshot");
+        }
+        return value;
+    }
+
+    private static int readRawVarInt(Source in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte(in);
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in table model snapshot");
+    }
+
+    /**
+     * 读取的数据来源
+     */
+    private interface Source {
+        /**
+         * @return 下一个字节，没有数据时返回-1
+         */
+        int read() throws IOException;
+    }
+
+    private static final class StreamSource implements Source {
+        private final InputStream in;
+
+        StreamSource(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return in.read();
+        }
+    }
+
+    private static final class BufferSource implements Source {
+        private final ByteBuffer in;
+
+        BufferSource(ByteBuffer in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() {
+            return in.hasRemaining() ? in.get() & 0xFF : -1;
+        }
+    }
+
+    /**
+     * 可增长的字节缓冲，编码完成后一次写入输出流
+     */
+    private static final class Buffer {
+        byte[] data = new byte[256];
+        int length = 0;
+
+        void writeByte(int b) {
+            if (length == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[length++] = (byte) b;
+        }
+
+        void write(byte[] bytes) {
+            for (byte b : bytes) {
+                writeByte(b);
+            }
+        }
+
+        void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.jeffery.tablelayout.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link CellIndex} 单元测试
+ */
+public class CellIndexTest {
+
+    private static final int ROWS = 200;
+    private static final int COLS = 40;
+
+    @Test
+    public void putGetRemove() {
+        CellIndex<String> index = new CellIndex<>();
+        assertNull(index.put(1, 2, "a"));
+        assertEquals("a", index.put(1, 2, "b"));
+        assertEquals("b", index.get(1, 2));
+        assertNull(index.get(2, 1));
+        assertEquals(1, index.size());
+        assertEquals("b", index.remove(1, 2));
+        assertNull(index.remove(1, 2));
+        assertNull(index.get(1, 2));
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    public void packKeepsRowAndColumn() {
+        long key = CellIndex.pack(123456, 7890);
+        assertEquals(123456, CellIndex.unpackRow(key));
+        assertEquals(7890, CellIndex.unpackCol(key));
+        key = CellIndex.pack(-1, -2);
+        assertEquals(-1, CellIndex.unpackRow(key));
+        assertEquals(-2, CellIndex.unpackCol(key));
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomOperations() {
+        CellIndex<Integer> index = new CellIndex<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            int row = random.nextInt(ROWS);
+            int col = random.nextInt(COLS);
+            long key = CellIndex.pack(row, col);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), index.remove(row, col));
+            } else {
+                assertEquals(expected.put(key, i), index.put(row, col, i));
+            }
+        }
+        assertEquals(expected.size(), index.size());
+        for (Map.Entry<Long, Integer> e : expected.entrySet()) {
+            long key = e.getKey();
+            assertEquals(e.getValue(), index.get(CellIndex.unpackRow(key), CellIndex.unpackCol(key)));
+        }
+    }
+
+    @Test
+    public void removeWhileIterating() {
+        CellIndex<CellSelection.Range> index = fill(new CellIndex<CellSelection.Range>());
+        for (int i = 0, n = index.capacity(); i < n; i++) {
+            CellSelection.Range cell = index.valueAt(i);
+            if (cell != null && (cell.row + cell.col) % 2 == 0) {
+                index.remove(cell.row, cell.col);
+            }
+        }
+        List<CellSelection.Range> remain = index.values(new ArrayList<CellSelection.Range>());
+        assertEquals(ROWS * COLS / 2, remain.size());
+        for (CellSelection.Range cell : remain) {
+            assertEquals(1, (cell.row + cell.col) % 2);
+        }
+    }
+
+    private static CellIndex<CellSelection.Range> fill(CellIndex<CellSelection.Range> index) {
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                index.put(r, c, new CellSelection.Range(r, c, 1, 1));
+            }
+        }
+        return index;
+    }
+}
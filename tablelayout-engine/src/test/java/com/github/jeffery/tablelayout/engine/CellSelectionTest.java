@@ -0,0 +1,52 @@
+package com.github.jeffery.tablelayout.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link CellSelection} 单元测试
+ */
+public class CellSelectionTest {
+
+    @Test
+    public void unionKeepsRangesDisjoint() {
+        CellSelection selection = new CellSelection();
+        selection.add(0, 0, 4, 4);
+        selection.add(2, 2, 4, 4);
+        //重叠的4个格子只计算一次
+        assertEquals(28, selection.getCellCount());
+        assertTrue(selection.contains(5, 5));
+        assertFalse(selection.contains(5, 0));
+        selection.add(1, 1, 2, 2);
+        assertEquals(28, selection.getCellCount());
+    }
+
+    @Test
+    public void removeSplitsRange() {
+        CellSelection selection = new CellSelection();
+        selection.selectAll(10, 10);
+        selection.remove(4, 4, 2, 2);
+        assertEquals(96, selection.getCellCount());
+        assertFalse(selection.contains(4, 5));
+        assertTrue(selection.contains(6, 5));
+        assertTrue(selection.containsAll(0, 0, 4, 10));
+        assertFalse(selection.containsAll(3, 3, 3, 3));
+    }
+
+    @Test
+    public void toggleRowAndColumn() {
+        CellSelection selection = new CellSelection();
+        selection.selectRow(3, 8);
+        selection.selectColumn(2, 6);
+        assertEquals(13, selection.getCellCount());
+        assertFalse(selection.toggle(3, 0, 1, 8));
+        assertEquals(5, selection.getCellCount());
+        assertTrue(selection.contains(4, 2));
+        assertFalse(selection.contains(3, 2));
+        assertTrue(selection.toggle(3, 2, 1, 1));
+        assertEquals(6, selection.getCellCount());
+        selection.clear();
+        assertTrue(selection.isEmpty());
+    }
+}
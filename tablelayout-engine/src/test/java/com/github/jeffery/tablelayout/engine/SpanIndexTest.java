@@ -0,0 +1,98 @@
+package com.github.jeffery.tablelayout.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link SpanIndex} 单元测试
+ */
+public class SpanIndexTest {
+
+    @Test
+    public void findCoversWholeSpan() {
+        SpanIndex index = new SpanIndex();
+        index.put(2, 3, 2, 4);
+        SpanIndex.Span span = index.find(3, 6);
+        assertNotNull(span);
+        assertEquals(2, span.row);
+        assertEquals(3, span.col);
+        assertNull(index.find(4, 3));
+        assertNull(index.get(3, 6));
+        assertSame(span, index.get(2, 3));
+    }
+
+    @Test
+    public void expandAbsorbsPartiallyOverlappingSpans() {
+        SpanIndex index = new SpanIndex();
+        //与选区右下角相交的区域，以及与该区域相交的区域，需要连锁扩展
+        index.put(2, 2, 2, 2);
+        index.put(3, 1, 3, 1);
+        index.put(10, 10, 2, 2);
+        SpanIndex.Span region = index.expandToCover(0, 0, 3, 3);
+        assertEquals(0, region.row);
+        assertEquals(0, region.col);
+        assertEquals(6, region.rowSpan);
+        assertEquals(4, region.colSpan);
+
+        List<SpanIndex.Span> removed = new ArrayList<>();
+        assertEquals(2, index.removeWithin(region.row, region.col, region.rowSpan, region.colSpan, removed));
+        assertEquals(2, removed.size());
+        assertFalse(index.intersects(region.row, region.col, region.rowSpan, region.colSpan));
+        assertNotNull(index.find(11, 11));
+    }
+
+    @Test
+    public void expandKeepsRegionWithoutOverlap() {
+        SpanIndex index = new SpanIndex();
+        index.put(0, 0, 2, 2);
+        //完全包含的区域不需要扩展
+        SpanIndex.Span region = index.expandToCover(0, 0, 3, 3);
+        assertEquals(3, region.rowSpan);
+        assertEquals(3, region.colSpan);
+        region = index.expandToCover(5, 5, 1, 2);
+        assertEquals(5, region.row);
+        assertEquals(1, region.rowSpan);
+        assertEquals(2, region.colSpan);
+    }
+
+    @Test
+    public void mergeInLargeTableAbsorbsOnlyOverlappingSpans() {
+        int rows = 1000;
+        int cols = 100;
+        SpanIndex index = new SpanIndex();
+        //每4x4个格子有一个2x2的合并区域
+        for (int r = 0; r + 1 < rows; r += 4) {
+            for (int c = 0; c + 1 < cols; c += 4) {
+                index.put(r, c, 2, 2);
+            }
+        }
+        int size = index.size();
+        List<SpanIndex.Span> removed = new ArrayList<>();
+
+        //部分重叠时扩展到完整包含该区域
+        SpanIndex.Span region = index.expandToCover(401, 41, 3, 3);
+        assertEquals(400, region.row);
+        assertEquals(40, region.col);
+        assertEquals(4, region.rowSpan);
+        assertEquals(4, region.colSpan);
+        assertEquals(1, index.removeWithin(region.row, region.col, region.rowSpan, region.colSpan, removed));
+
+        //完全包含时不扩展
+        region = index.expandToCover(603, 63, 3, 3);
+        assertEquals(603, region.row);
+        assertEquals(3, region.rowSpan);
+        assertEquals(1, index.removeWithin(region.row, region.col, region.rowSpan, region.colSpan, removed));
+        assertEquals(size - 2, index.size());
+
+        //还原后状态不变
+        for (SpanIndex.Span span : removed) {
+            index.put(span.row, span.col, span.rowSpan, span.colSpan);
+        }
+        assertEquals(size, index.size());
+        assertSame(index.get(400, 40), index.find(401, 41));
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.jeffery.tablelayout.engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TableModelCodec} 单元测试
+ */
+public class TableModelCodecTest {
+
+    private static final int GRAVITY_LEFT_TOP = 3 | 48;
+
+    @Test
+    public void roundTrip() throws IOException {
+        TableModel model = createModel(new Random(1), 500, 30);
+        TableModel decoded = TableModelCodec.fromByteArray(TableModelCodec.toByteArray(model));
+        assertEquals(model, decoded);
+    }
+
+    @Test
+    public void roundTripEmptyModel() throws IOException {
+        TableModel model = new TableModel();
+        assertEquals(model, TableModelCodec.fromByteArray(TableModelCodec.toByteArray(model)));
+    }
+
+    @Test
+    public void readStopsAtSnapshotEnd() throws IOException {
+        TableModel first = createModel(new Random(2), 20, 5);
+        TableModel second = createModel(new Random(3), 40, 8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TableModelCodec.write(first, out);
+        TableModelCodec.write(second, out);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertEquals(first, TableModelCodec.read(in));
+        assertEquals(second, TableModelCodec.read(in));
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void readStopsAtSnapshotEndInBuffer() throws IOException {
+        TableModel first = createModel(new Random(2), 20, 5);
+        TableModel second = createModel(new Random(3), 40, 8);
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        TableModelCodec.write(first, buffer);
+        TableModelCodec.write(second, buffer);
+        buffer.flip();
+        assertEquals(first, TableModelCodec.read(buffer));
+        assertEquals(second, TableModelCodec.read(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsNewerVersion() throws IOException {
+        byte[] data = TableModelCodec.toByteArray(new TableModel());
+        data[4] = (byte) (TableModelCodec.VERSION + 1);
+        TableModelCodec.fromByteArray(data);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedData() throws IOException {
+        byte[] data = TableModelCodec.toByteArray(createModel(new Random(4), 50, 10));
+        TableModelCodec.fromByteArray(Arrays.copyOf(data, data.length - 3));
+    }
+
+    @Test
+    public void smallerThanJavaSerialization() throws Exception {
+        TableModel model = createModel(new Random(5), 2000, 40);
+        byte[] binary = TableModelCodec.toByteArray(model);
+        byte[] serialized = serialize(model);
+        assertEquals(model, deserialize(serialized));
+        assertTrue("binary " + binary.length + " >= serialized " + serialized.length,
+                binary.length * 3 < serialized.length);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOversizedRowCount() throws IOException {
+        TableModel model = new TableModel();
+        model.setRowCount(Integer.MAX_VALUE);
+        TableModelCodec.fromByteArray(TableModelCodec.toByteArray(model));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsSizesLongerThanRowCount() throws IOException {
+        TableModel model = createModel(new Random(6), 10, 4);
+        model.setRowHeights(new int[11]);
+        TableModelCodec.fromByteArray(TableModelCodec.toByteArray(model));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsCellOutOfRange() throws IOException {
+        TableModel model = createModel(new Random(7), 10, 4);
+        model.getCells().add(new TableModel.Cell(10, 0, 1, 1, TableModel.DEFAULT_GRAVITY));
+        TableModelCodec.fromByteArray(TableModelCodec.toByteArray(model));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsEmptySpan() throws IOException {
+        TableModel model = createModel(new Random(8), 10, 4);
+        model.getCells().add(new TableModel.Cell(9, 3, 1, 0, TableModel.DEFAULT_GRAVITY));
+        TableModelCodec.fromByteArray(TableModelCodec.toByteArray(model));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsSpanPastLastRow() throws IOException {
+        TableModel model = createModel(new Random(9), 10, 4);
+        model.getCells().add(new TableModel.Cell(9, 3, 2, 1, TableModel.DEFAULT_GRAVITY));
+        TableModelCodec.fromByteArray(TableModelCodec.toByteArray(model));
+    }
+
+    private static byte[] serialize(TableModel model) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(model);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private static TableModel deserialize(byte[] data) throws Exception {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data));
+        try {
+            return (TableModel) in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * 生成行列顺序的模板，包含合并单元格、对齐方式和部分单独设置的行高列宽
+     */
+    private static TableModel createModel(Random random, int rows, int columns) {
+        TableModel model = new TableModel();
+        model.setRowCount(rows);
+        model.setColumnCount(columns);
+        model.setBorderWidth(2);
+        model.setRowHeight(48);
+        model.setColumnWidth(120);
+        int[] rowHeights = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            rowHeights[i] = random.nextInt(4) == 0 ? 32 + random.nextInt(64) : -1;
+        }
+        int[] columnWidths = new int[columns];
+        for (int i = 0; i < columns; i++) {
+            columnWidths[i] = random.nextInt(3) == 0 ? 80 + random.nextInt(200) : -1;
+        }
+        model.setRowHeights(rowHeights);
+        model.setColumnWidths(columnWidths);
+        for (int r = 0; r < rows; r += 2) {
+            for (int c = 0; c < columns; c += 2) {
+                int kind = random.nextInt(4);
+                if (kind == 0) {
+                    continue;
+                }
+                int rowSpan = 1;
+                int colSpan = 1;
+                if (kind != 2) {
+                    rowSpan = Math.min(2, rows - r);
+                    colSpan = Math.min(1 + random.nextInt(2), columns - c);
+                }
+                int gravity = kind != 1 ? GRAVITY_LEFT_TOP : TableModel.DEFAULT_GRAVITY;
+                model.getCells().add(new TableModel.Cell(r, c, rowSpan, colSpan, gravity));
+            }
+        }
+        return model;
+    }
+}
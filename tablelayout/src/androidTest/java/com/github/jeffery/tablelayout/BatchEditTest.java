@@ -0,0 +1,144 @@
+package com.github.jeffery.tablelayout;
+
+import android.content.Context;
+import android.view.Gravity;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 批量编辑时布局次数的测试
+ * <p>
+ * 每次操作后模拟一帧：表格请求了布局就进行一次测量和布局，统计布局次数。
+ */
+@RunWith(AndroidJUnit4.class)
+public class BatchEditTest {
+
+    private static final int ROWS = 20;
+    private static final int COLUMNS = 10;
+
+    private int layoutPasses;
+
+    @Test
+    @UiThreadTest
+    public void populateWithoutBatchLayoutsPerOperation() {
+        TableLayout table = createTable();
+        populate(table);
+        assertTrue(layoutPasses > ROWS * COLUMNS);
+    }
+
+    @Test
+    @UiThreadTest
+    public void populateInBatchLayoutsOnce() {
+        TableLayout table = createTable();
+        table.beginBatch();
+        populate(table);
+        assertEquals(0, layoutPasses);
+        assertTrue(table.isInBatch());
+        table.endBatch();
+        frame(table);
+        assertEquals(1, layoutPasses);
+        assertFalse(table.isInBatch());
+
+        TableCell merged = table.findCell(1, 1);
+        assertNotNull(merged);
+        assertEquals(0, merged.getRow());
+        assertEquals(0, merged.getCol());
+        assertEquals(2, merged.getRowSpan());
+        assertEquals(2, merged.getColSpan());
+        assertEquals(View.GONE, table.getChildAt(1, 1).getVisibility());
+        assertEquals(ROWS * COLUMNS, table.getChildCount());
+        assertEquals(Gravity.START, table.getCellGravity(5, 5));
+    }
+
+    @Test
+    @UiThreadTest
+    public void lookupsInBatchSeeNewSpans() {
+        TableLayout table = createTable();
+        table.beginBatch();
+        TableCell cell = new TableCell(2, 2);
+        cell.setRowSpan(2);
+        cell.setColSpan(3);
+        table.addView(new TextView(table.getContext()), cell);
+        //批量编辑期间添加的合并单元格可以立即查到
+        TableCell merged = table.findCell(3, 4);
+        assertNotNull(merged);
+        assertEquals(2, merged.getRow());
+        assertEquals(2, merged.getCol());
+        table.endBatch();
+    }
+
+    @Test
+    @UiThreadTest
+    public void nestedBatchAppliesOnOutermostEnd() {
+        TableLayout table = createTable();
+        table.beginBatch();
+        table.beginBatch();
+        table.setColumnCount(COLUMNS + 1);
+        table.endBatch();
+        frame(table);
+        assertEquals(0, layoutPasses);
+        table.endBatch();
+        frame(table);
+        assertEquals(1, layoutPasses);
+    }
+
+    @Test
+    @UiThreadTest
+    public void unbalancedEndBatchThrows() {
+        TableLayout table = createTable();
+        try {
+            table.endBatch();
+            fail("endBatch() without beginBatch() should throw");
+        } catch (IllegalStateException expected) {
+            //ignore
+        }
+    }
+
+    private TableLayout createTable() {
+        TableLayout table = TableTestHelper.createTable(ROWS, COLUMNS, 0, 0);
+        frame(table);
+        layoutPasses = 0;
+        return table;
+    }
+
+    private void populate(TableLayout table) {
+        Context context = table.getContext();
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLUMNS; c++) {
+                TextView textView = new TextView(context);
+                textView.setText(r + "," + c);
+                table.addView(textView, new TableCell(r, c));
+                frame(table);
+            }
+        }
+        table.setCellGravity(table.findCell(5, 5), Gravity.START);
+        frame(table);
+        List<TableCell> cells = new ArrayList<>();
+        cells.add(new TableCell(0, 0));
+        cells.add(new TableCell(1, 1));
+        table.combineCell(cells);
+        frame(table);
+    }
+
+    /**
+     * 模拟一帧的布局
+     */
+    private void frame(TableLayout table) {
+        if (!table.isLayoutRequested()) {
+            return;
+        }
+        layoutPasses++;
+        TableTestHelper.layout(table, 1080, 1920);
+    }
+}
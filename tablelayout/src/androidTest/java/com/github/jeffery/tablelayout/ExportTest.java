@@ -0,0 +1,69 @@
+package com.github.jeffery.tablelayout;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import androidx.annotation.NonNull;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 未显示的表格分块导出，每块不超过内存上限
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExportTest {
+
+    /**
+     * 表格宽度约2000px，1MB的分块每块只能放下两行，12行足够分成多块
+     */
+    private static final int ROWS = 12;
+
+    @Test
+    @UiThreadTest
+    public void exportsStripsWithinMemoryLimit() throws IOException {
+        TableLayout table = TableTestHelper.createTable(ROWS, 10, 60, 200);
+        table.setFrozenRowCount(1);
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < 10; c++) {
+                table.setCellText(r, c, r + "," + c);
+            }
+        }
+        final int maxBytes = 1024 * 1024;
+        final List<ByteArrayOutputStream> strips = new ArrayList<>();
+        int count = new TableExporter(table)
+                .setMaxTileBytes(maxBytes)
+                .exportPngStrips(new TableExporter.StripOutput() {
+                    @NonNull
+                    @Override
+                    public OutputStream openStrip(int index) {
+                        ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        strips.add(out);
+                        return out;
+                    }
+                });
+
+        assertTrue(count > 1);
+        assertEquals(count, strips.size());
+        int width = table.getMeasuredWidth();
+        for (ByteArrayOutputStream strip : strips) {
+            byte[] data = strip.toByteArray();
+            Bitmap bitmap = BitmapFactory.decodeByteArray(data, 0, data.length);
+            assertNotNull(bitmap);
+            assertEquals(width, bitmap.getWidth());
+            assertTrue(bitmap.getByteCount() <= maxBytes);
+            bitmap.recycle();
+        }
+        assertEquals(0, table.getChildCount());
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.jeffery.tablelayout;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.widget.TextView;
+
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * 固定表头缓存的测试：滑动时不重新绘制表头，表头内容变化时重新绘制
+ */
+@RunWith(AndroidJUnit4.class)
+public class FrozenHeaderTest {
+
+    private static final int WIDTH = 540;
+    private static final int HEIGHT = 960;
+
+    @Test
+    @UiThreadTest
+    public void scrollingReusesHeaderCache() {
+        TableLayout table = createTable();
+        Canvas canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+        table.draw(canvas);
+        int renders = table.getHeaderRenderCount();
+        assertEquals(3, renders);
+
+        //缓存多出一屏，小范围滑动直接使用缓存
+        for (int i = 1; i <= 10; i++) {
+            table.scrollTo(i * 20, i * 30);
+            table.draw(canvas);
+        }
+        assertEquals(renders, table.getHeaderRenderCount());
+
+        table.setColor(Color.RED);
+        table.draw(canvas);
+        assertTrue(table.getHeaderRenderCount() > renders);
+    }
+
+    private TableLayout createTable() {
+        TableLayout table = TableTestHelper.createTable(100, 30, 60, 150);
+        table.setFrozenRowCount(1);
+        table.setFrozenColumnCount(1);
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                TextView textView = new TextView(table.getContext());
+                textView.setText(r + "," + c);
+                table.addView(textView, new TableCell(r, c));
+            }
+        }
+        TableTestHelper.layout(table, WIDTH, HEIGHT);
+        return table;
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.jeffery.tablelayout;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * 多选模式下拖动默认滑动表格，开启拖动选择后才选择区域
+ */
+@RunWith(AndroidJUnit4.class)
+public class MultiSelectScrollTest {
+
+    private static final int WIDTH = 540;
+    private static final int HEIGHT = 960;
+
+    @Test
+    @UiThreadTest
+    public void dragScrollsInMultiSelectMode() {
+        TableLayout table = createTable();
+        assertFalse(table.isDragSelectEnabled());
+        drag(table);
+        assertTrue(table.getScrollY() > 0);
+        assertTrue(table.getSelection().isEmpty());
+    }
+
+    @Test
+    @UiThreadTest
+    public void dragSelectDoesNotScroll() {
+        TableLayout table = createTable();
+        table.setDragSelectEnabled(true);
+        drag(table);
+        assertEquals(0, table.getScrollY());
+    }
+
+    private TableLayout createTable() {
+        TableLayout table = TableTestHelper.createTable(100, 10, 60, 150);
+        table.setMultiSelectMode(true);
+        TableTestHelper.layout(table, WIDTH, HEIGHT);
+        return table;
+    }
+
+    /**
+     * 从屏幕中间向上拖动400px
+     */
+    private static void drag(TableLayout table) {
+        long downTime = SystemClock.uptimeMillis();
+        float x = WIDTH / 2f;
+        float y = HEIGHT / 2f + 200;
+        send(table, downTime, downTime, MotionEvent.ACTION_DOWN, x, y);
+        for (int i = 1; i <= 10; i++) {
+            send(table, downTime, downTime + i * 16, MotionEvent.ACTION_MOVE, x, y - i * 40);
+        }
+        send(table, downTime, downTime + 11 * 16, MotionEvent.ACTION_UP, x, y - 400);
+    }
+
+    private static void send(TableLayout table, long downTime, long eventTime, int action, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        table.dispatchTouchEvent(event);
+        event.recycle();
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.jeffery.tablelayout;
+
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 获取选中格子返回副本，不修改表格内的格子
+ */
+@RunWith(AndroidJUnit4.class)
+public class SelectedCellsTest {
+
+    @Test
+    @UiThreadTest
+    public void selectedCellsAreDetachedCopies() {
+        TableLayout table = createTable();
+        table.selectRange(0, 0, 1, 2);
+        List<TableCell> selected = table.getSelectedCells();
+        assertEquals(2, selected.size());
+        for (TableCell cell : selected) {
+            assertTrue(cell.isSelected());
+        }
+        table.clearSelection();
+        for (TableCell cell : table.getTableCellData()) {
+            assertFalse(cell.isSelected());
+        }
+    }
+
+    @Test
+    @UiThreadTest
+    public void coveredCellReportsSpanAnchor() {
+        TableLayout table = createTable();
+        table.combineCell(Arrays.asList(new TableCell(2, 2), new TableCell(3, 3)));
+        //只选中合并区域右下角，返回左上角的格子
+        table.selectRange(3, 3, 1, 1);
+        List<TableCell> selected = table.getSelectedCells();
+        assertEquals(1, selected.size());
+        TableCell anchor = selected.get(0);
+        assertEquals(2, anchor.getRow());
+        assertEquals(2, anchor.getCol());
+        assertEquals(2, anchor.getRowSpan());
+        assertEquals(2, anchor.getColSpan());
+
+        //使用副本取消合并
+        table.unCombineCell(selected);
+        table.clearSelection();
+        table.selectRange(3, 3, 1, 1);
+        selected = table.getSelectedCells();
+        assertEquals(1, selected.size());
+        assertEquals(3, selected.get(0).getRow());
+        assertEquals(1, selected.get(0).getRowSpan());
+    }
+
+    private static TableLayout createTable() {
+        TableLayout table = TableTestHelper.createTable(6, 6, 60, 150);
+        table.setMultiSelectMode(true);
+        table.setCellText(2, 2, "a");
+        TableTestHelper.layout(table, 540, 960);
+        return table;
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.jeffery.tablelayout;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+/**
+ * 仪器测试共用的表格创建和布局方法，测试方法使用{@link androidx.test.annotation.UiThreadTest}在主线程运行
+ */
+final class TableTestHelper {
+
+    private TableTestHelper() {
+    }
+
+    static Context context() {
+        return InstrumentationRegistry.getInstrumentation().getTargetContext();
+    }
+
+    /**
+     * 创建行列数固定的表格，行高或列宽为0时使用默认值
+     */
+    static TableLayout createTable(int rows, int columns, int rowHeight, int columnWidth) {
+        TableLayout table = new TableLayout(context());
+        table.setRowCount(rows);
+        table.setColumnCount(columns);
+        if (rowHeight > 0) {
+            table.setRowHeight(rowHeight);
+        }
+        if (columnWidth > 0) {
+            table.setColumnWidth(columnWidth);
+        }
+        return table;
+    }
+
+    /**
+     * 按固定大小测量和布局
+     */
+    static void layout(TableLayout table, int width, int height) {
+        table.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        table.layout(0, 0, width, height);
+    }
+
+    /**
+     * 按内容大小测量和布局
+     */
+    static void layoutToContent(TableLayout table) {
+        int spec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        table.measure(spec, spec);
+        table.layout(0, 0, table.getMeasuredWidth(), table.getMeasuredHeight());
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.jeffery.tablelayout;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.Gravity;
+
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文本单元格不创建子View
+ */
+@RunWith(AndroidJUnit4.class)
+public class TextCellTest {
+
+    @Test
+    @UiThreadTest
+    public void textCellsNeedNoChildViews() {
+        TableLayout table = TableTestHelper.createTable(1000, 10, 60, 200);
+        for (int r = 0; r < 1000; r++) {
+            for (int c = 0; c < 10; c++) {
+                table.setCellText(r, c, r + "," + c);
+            }
+        }
+        table.setCellGravity(new TableCell(0, 0), Gravity.START | Gravity.TOP);
+        TableTestHelper.layout(table, 1080, 1920);
+        Bitmap bitmap = Bitmap.createBitmap(1080, 1920, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(Color.WHITE);
+        table.draw(new Canvas(bitmap));
+
+        assertEquals(0, table.getChildCount());
+        assertEquals("5,3", table.getCellText(5, 3).toString());
+        assertEquals(Gravity.START | Gravity.TOP, table.getCellGravity(0, 0));
+        table.setCellText(5, 3, null);
+        assertNull(table.getCellText(5, 3));
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.jeffery.tablelayout;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * 分块缓存只重新绘制内容变化的分块
+ */
+@RunWith(AndroidJUnit4.class)
+public class TileCacheTest {
+
+    @Test
+    @UiThreadTest
+    public void onlyChangedTilesAreRerendered() {
+        TableLayout table = TableTestHelper.createTable(100, 10, 60, 200);
+        for (int r = 0; r < 100; r++) {
+            for (int c = 0; c < 10; c++) {
+                table.setCellText(r, c, r + "," + c);
+            }
+        }
+        table.setTileCacheEnabled(true);
+        TableTestHelper.layout(table, 1024, 1024);
+        Bitmap bitmap = Bitmap.createBitmap(1024, 1024, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        table.draw(canvas);
+        int tiles = table.getTileMissCount();
+        assertEquals(16, tiles);
+        assertEquals(0, table.getTileHitCount());
+
+        table.draw(canvas);
+        assertEquals(tiles, table.getTileMissCount());
+        assertEquals(tiles, table.getTileHitCount());
+        assertEquals(0, table.getTileRerenderCount());
+
+        //第一个单元格只在第一个分块中
+        table.setCellText(0, 0, "changed");
+        table.draw(canvas);
+        assertEquals(1, table.getTileRerenderCount());
+        assertEquals(tiles * 2 - 1, table.getTileHitCount());
+        assertTrue(table.getTileCacheSize() <= table.getTileCacheMaxBytes());
+
+        table.setTileCacheMaxBytes(256 * 256 * 4 * 4);
+        assertTrue(table.getTileCacheSize() <= 256 * 256 * 4 * 4);
+        bitmap.recycle();
+    }
+}
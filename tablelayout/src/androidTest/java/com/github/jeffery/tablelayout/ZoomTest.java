@@ -0,0 +1,42 @@
+package com.github.jeffery.tablelayout;
+
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * 缩放比例对测量大小和滑动范围的影响
+ */
+@RunWith(AndroidJUnit4.class)
+public class ZoomTest {
+
+    @Test
+    @UiThreadTest
+    public void zoomScalesMeasuredSizeWithinLimits() {
+        TableLayout table = TableTestHelper.createTable(20, 10, 50, 100);
+        TableTestHelper.layoutToContent(table);
+        int width = table.getMeasuredWidth();
+        int height = table.getMeasuredHeight();
+
+        table.setZoom(2f);
+        assertTrue(table.isLayoutRequested());
+        TableTestHelper.layoutToContent(table);
+        assertEquals(width * 2, table.getMeasuredWidth());
+        assertEquals(height * 2, table.getMeasuredHeight());
+
+        table.setZoom(100f);
+        assertEquals(table.getMaxZoom(), table.getZoom(), 0f);
+        table.setZoomRange(0.25f, 1f);
+        assertEquals(1f, table.getZoom(), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @UiThreadTest
+    public void invalidZoomRangeThrows() {
+        new TableLayout(TableTestHelper.context()).setZoomRange(2f, 1f);
+    }
+}
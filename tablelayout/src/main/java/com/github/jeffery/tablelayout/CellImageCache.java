@@ -0,0 +1,144 @@
+package com.github.jeffery.tablelayout;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Process;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 图片单元格的位图缓存
+ * <p>
+ * 图片按单元格的大小降采样解码，以来源和目标大小为键保存，按位图占用的字节数限制缓存大小。
+ * 多个表格可以共享同一个缓存，见{@link TableLayout#setImageCache(CellImageCache)}。
+ * 只能在主线程访问。
+ */
+public final class CellImageCache {
+
+    /**
+     * 解码使用的后台线程
+     */
+    static final Executor DECODE_EXECUTOR;
+
+    static {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(@NonNull final Runnable r) {
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        r.run();
+                    }
+                }, "TableImageDecoder-" + mCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        DECODE_EXECUTOR = executor;
+    }
+
+    private final LruCache<String, Bitmap> mCache;
+
+    /**
+     * @param maxBytes 缓存的最大字节数
+     */
+    public CellImageCache(int maxBytes) {
+        mCache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * 使用可用内存的1/8
+     */
+    public static CellImageCache createDefault() {
+        return new CellImageCache((int) Math.min(Runtime.getRuntime().maxMemory() / 8, Integer.MAX_VALUE));
+    }
+
+    @Nullable
+    public Bitmap get(@NonNull String key) {
+        return mCache.get(key);
+    }
+
+    public void put(@NonNull String key, @NonNull Bitmap bitmap) {
+        mCache.put(key, bitmap);
+    }
+
+    public void evictAll() {
+        mCache.evictAll();
+    }
+
+    public int getHitCount() {
+        return mCache.hitCount();
+    }
+
+    public int getMissCount() {
+        return mCache.missCount();
+    }
+
+    /**
+     * 当前缓存的字节数
+     */
+    public int getSize() {
+        return mCache.size();
+    }
+
+    public int getMaxSize() {
+        return mCache.maxSize();
+    }
+
+    /**
+     * 缓存的键，同一来源按不同大小解码的位图分别保存
+     */
+    static String keyOf(CellImageSource source, int width, int height) {
+        return source.getKey() + '@' + width + 'x' + height;
+    }
+
+    /**
+     * 不小于目标大小的前提下最大的2的幂采样率
+     */
+    static int calculateInSampleSize(int srcWidth, int srcHeight, int reqWidth, int reqHeight) {
+        int sampleSize = 1;
+        if (reqWidth <= 0 || reqHeight <= 0) {
+            return sampleSize;
+        }
+        while (srcWidth / (sampleSize * 2) >= reqWidth && srcHeight / (sampleSize * 2) >= reqHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * 先读取尺寸，再按目标大小降采样解码，在后台线程调用
+     */
+    @Nullable
+    static Bitmap decodeSampled(CellImageSource source, int reqWidth, int reqHeight) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        source.decode(options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+        options.inJustDecodeBounds = false;
+        return source.decode(options);
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.jeffery.tablelayout;
+
+import android.content.ContentResolver;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 图片单元格的图片来源，在后台线程解码
+ *
+ * @see TableLayout#setCellImage(int, int, CellImageSource)
+ */
+public abstract class CellImageSource {
+
+    /**
+     * 缓存使用的唯一标识，相同标识的来源解码出相同的图片
+     */
+    @NonNull
+    public abstract String getKey();
+
+    /**
+     * 按参数解码，{@link BitmapFactory.Options#inJustDecodeBounds}为true时只需要读取尺寸。
+     * 在后台线程调用
+     *
+     * @return 解码失败返回null
+     */
+    @Nullable
+    public abstract Bitmap decode(@NonNull BitmapFactory.Options options) throws IOException;
+
+    public static CellImageSource fromResource(@NonNull final Resources resources, final int resId) {
+        return new CellImageSource() {
+            @NonNull
+            @Override
+            public String getKey() {
+                return "res:" + resId;
+            }
+
+            @Override
+            public Bitmap decode(@NonNull BitmapFactory.Options options) {
+                return BitmapFactory.decodeResource(resources, resId, options);
+            }
+        };
+    }
+
+    public static CellImageSource fromFile(@NonNull final String path) {
+        return new CellImageSource() {
+            @NonNull
+            @Override
+            public String getKey() {
+                return "file:" + path;
+            }
+
+            @Override
+            public Bitmap decode(@NonNull BitmapFactory.Options options) {
+                return BitmapFactory.decodeFile(path, options);
+            }
+        };
+    }
+
+    public static CellImageSource fromUri(@NonNull final ContentResolver resolver, @NonNull final Uri uri) {
+        return new CellImageSource() {
+            @NonNull
+            @Override
+            public String getKey() {
+                return uri.toString();
+            }
+
+            @Override
+            public Bitmap decode(@NonNull BitmapFactory.Options options) throws IOException {
+                InputStream in = resolver.openInputStream(uri);
+                if (in == null) {
+                    return null;
+                }
+                try {
+                    return BitmapFactory.decodeStream(in, null, options);
+                } finally {
+                    in.close();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.jeffery.tablelayout;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.text.TextPaint;
+
+import androidx.annotation.Nullable;
+
+/**
+ * 文本单元格的样式，创建后不可修改，可以在多个单元格之间共享
+ *
+ * @see TableLayout#setCellText(int, int, CharSequence, CellTextStyle)
+ */
+public final class CellTextStyle {
+
+    private final TextPaint mPaint;
+    private final int mPadding;
+
+    /**
+     * @param textSize  文字大小(px)
+     * @param textColor 文字颜色
+     */
+    public CellTextStyle(float textSize, int textColor) {
+        this(textSize, textColor, null, 0);
+    }
+
+    /**
+     * @param textSize  文字大小(px)
+     * @param textColor 文字颜色
+     * @param typeface  字体，null表示默认字体
+     * @param padding   文字与单元格边缘的距离(px)
+     */
+    public CellTextStyle(float textSize, int textColor, @Nullable Typeface typeface, int padding) {
+        mPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        mPaint.setTextSize(textSize);
+        mPaint.setColor(textColor);
+        mPaint.setTypeface(typeface);
+        mPadding = Math.max(padding, 0);
+    }
+
+    public float getTextSize() {
+        return mPaint.getTextSize();
+    }
+
+    public int getTextColor() {
+        return mPaint.getColor();
+    }
+
+    @Nullable
+    public Typeface getTypeface() {
+        return mPaint.getTypeface();
+    }
+
+    public int getPadding() {
+        return mPadding;
+    }
+
+    /**
+     * 排版和绘制使用的画笔，不能修改
+     */
+    TextPaint getPaint() {
+        return mPaint;
+    }
+}
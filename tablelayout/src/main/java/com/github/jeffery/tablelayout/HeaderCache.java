@@ -0,0 +1,95 @@
+package com.github.jeffery.tablelayout;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+/**
+ * 固定表头一个区域的位图缓存
+ * <p>
+ * 缓存以内容坐标记录覆盖的区域，绘制时只取需要的部分。
+ * 内容没有变化且需要绘制的区域仍在缓存范围内时直接绘制位图，不需要重新绘制表头的单元格。
+ */
+final class HeaderCache {
+
+    private Bitmap mBitmap;
+    private final Canvas mCanvas = new Canvas();
+    /**
+     * 缓存覆盖的内容区域
+     */
+    private final Rect mCachedRect = new Rect();
+    private final Rect mSrc = new Rect();
+    private final Rect mDst = new Rect();
+    private float mScale = 1f;
+    private boolean mValid = false;
+    private int mRenderCount = 0;
+
+    /**
+     * 缓存是否有效且覆盖该区域
+     */
+    boolean covers(Rect area) {
+        return mValid && mCachedRect.contains(area);
+    }
+
+    /**
+     * 开始重新绘制缓存，返回的画布使用内容坐标并裁剪到该区域
+     *
+     * @param scale 缩放比例，位图按缩放后的大小绘制，显示时不会模糊
+     */
+    Canvas beginRender(Rect area, float scale, int backgroundColor) {
+        int width = Math.max((int) Math.ceil(area.width() * scale), 1);
+        int height = Math.max((int) Math.ceil(area.height() * scale), 1);
+        if (mBitmap == null || mBitmap.getWidth() < width || mBitmap.getHeight() < height) {
+            release();
+            mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
+        mBitmap.eraseColor(backgroundColor);
+        mCanvas.setBitmap(mBitmap);
+        mCanvas.save();
+        mCanvas.scale(scale, scale);
+        mCanvas.translate(-area.left, -area.top);
+        mCanvas.clipRect(area);
+        mCachedRect.set(area);
+        mScale = scale;
+        return mCanvas;
+    }
+
+    void endRender() {
+        mCanvas.restore();
+        mCanvas.setBitmap(null);
+        mValid = true;
+        mRenderCount++;
+    }
+
+    /**
+     * 把缓存中的area部分以内容坐标绘制到画布上，画布需要按绘制缓存时的比例缩放
+     */
+    void draw(Canvas canvas, Rect area) {
+        if (mBitmap == null) {
+            return;
+        }
+        mSrc.set(Math.round((area.left - mCachedRect.left) * mScale), Math.round((area.top - mCachedRect.top) * mScale),
+                Math.round((area.right - mCachedRect.left) * mScale), Math.round((area.bottom - mCachedRect.top) * mScale));
+        mDst.set(area);
+        canvas.drawBitmap(mBitmap, mSrc, mDst, null);
+    }
+
+    void invalidate() {
+        mValid = false;
+    }
+
+    /**
+     * 重新绘制的次数
+     */
+    int getRenderCount() {
+        return mRenderCount;
+    }
+
+    void release() {
+        mValid = false;
+        if (mBitmap != null) {
+            mBitmap.recycle();
+            mBitmap = null;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.jeffery.tablelayout;
+
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * 按类型缓存的已回收View
+ */
+final class ScrapViews {
+
+    private static final int DEFAULT_MAX_SCRAP = 32;
+
+    private final SparseArray<ArrayList<View>> mScraps = new SparseArray<>();
+    private final SparseIntArray mMaxScraps = new SparseIntArray();
+
+    /**
+     * 取出一个可复用的View
+     *
+     * @return 没有可复用的View时返回null
+     */
+    View get(int viewType) {
+        ArrayList<View> scrap = mScraps.get(viewType);
+        if (scrap == null || scrap.isEmpty()) {
+            return null;
+        }
+        return scrap.remove(scrap.size() - 1);
+    }
+
+    /**
+     * 回收View
+     *
+     * @return 该类型的缓存已满时返回false
+     */
+    boolean put(int viewType, View view) {
+        ArrayList<View> scrap = mScraps.get(viewType);
+        if (scrap == null) {
+            scrap = new ArrayList<>();
+            mScraps.put(viewType, scrap);
+        }
+        if (scrap.size() >= mMaxScraps.get(viewType, DEFAULT_MAX_SCRAP)) {
+            return false;
+        }
+        scrap.add(view);
+        return true;
+    }
+
+    void setMaxScrap(int viewType, int max) {
+        mMaxScraps.put(viewType, max);
+        ArrayList<View> scrap = mScraps.get(viewType);
+        while (scrap != null && scrap.size() > max) {
+            scrap.remove(scrap.size() - 1);
+        }
+    }
+
+    void clear() {
+        mScraps.clear();
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.jeffery.tablelayout;
+
+import android.database.DataSetObservable;
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 表格内容适配器
+ * <p>
+ * 设置到{@link TableLayout}后，表格只为可见区域内的单元格创建/绑定View，
+ * 滑出可见区域的View按类型回收复用。
+ */
+public abstract class TableAdapter {
+
+    /**
+     * 该单元格没有内容View
+     */
+    public static final int VIEW_TYPE_NONE = -1;
+
+    private final DataSetObservable mObservable = new DataSetObservable();
+
+    /**
+     * 获取单元格的View类型，相同类型的View可以互相复用
+     *
+     * @return 大于等于0的类型值，单元格没有内容时返回{@link #VIEW_TYPE_NONE}
+     */
+    public int getItemViewType(int row, int column) {
+        return 0;
+    }
+
+    /**
+     * 创建View
+     *
+     * @param parent   表格
+     * @param viewType {@link #getItemViewType(int, int)}返回的类型
+     */
+    @NonNull
+    public abstract View onCreateView(@NonNull ViewGroup parent, int viewType);
+
+    /**
+     * 绑定单元格数据到View
+     *
+     * @param cell 单元格，合并单元格为左上角的格子
+     */
+    public abstract void onBindView(@NonNull View view, @NonNull TableCell cell);
+
+    /**
+     * View被回收时回调，可以在此释放图片等资源
+     */
+    public void onViewRecycled(@NonNull View view) {
+
+    }
+
+    /**
+     * 数据发生变化，可见的单元格将重新绑定
+     */
+    public void notifyDataSetChanged() {
+        mObservable.notifyChanged();
+    }
+
+    public void registerDataSetObserver(DataSetObserver observer) {
+        mObservable.registerObserver(observer);
+    }
+
+    public void unregisterDataSetObserver(DataSetObserver observer) {
+        mObservable.unregisterObserver(observer);
+    }
+}
@@ -3,6 +3,8 @@ package com.github.jeffery.tablelayout;
 import android.view.Gravity;
 import android.view.View;
 
+import com.github.jeffery.tablelayout.engine.CellSelection;
+
 import java.io.Serializable;
 import java.util.Objects;
 
@@ -85,6 +87,10 @@ public final class TableCell implements Serializable{
         this.colSpan = colSpan;
     }
 
+    /**
+     * 是否为{@link TableLayout#getSelectedCells()}返回的选中格子，表格内的格子始终为false，
+     * 选区本身由{@link CellSelection}保存，使用{@link TableLayout#isCellSelected(int, int)}查询
+     */
     public boolean isSelected() {
         return selected;
     }
@@ -93,6 +99,19 @@ public final class TableCell implements Serializable{
         this.selected = selected;
     }
 
+    /**
+     * 复制格子，共享同一个View
+     */
+    TableCell copy() {
+        TableCell cell = new TableCell(row, col);
+        cell.rowSpan = rowSpan;
+        cell.colSpan = colSpan;
+        cell.gravity = gravity;
+        cell.view = view;
+        cell.selected = selected;
+        return cell;
+    }
+
     public View getView() {
         return view;
     }
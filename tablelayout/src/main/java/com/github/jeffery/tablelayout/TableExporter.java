@@ -0,0 +1,270 @@
+package com.github.jeffery.tablelayout;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.pdf.PdfDocument;
+import android.view.View;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+
+import com.github.jeffery.tablelayout.engine.TableAxis;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 把整个表格分块导出为PNG图片或PDF
+ * <p>
+ * 表格按行分页，每页单独绘制：PNG每页使用一块不超过{@link #setMaxTileBytes(int)}的位图，
+ * PDF直接绘制到页面，内存占用与表格大小无关。可以在每页顶部重复表头行。
+ * 表格不需要显示在窗口中，未布局的表格在导出前按内容测量(行高需要固定或按内容计算)。
+ * 导出包括边框、合并单元格、子View、文本和图片单元格，不包括选中状态；使用适配器时按页创建View。
+ */
+public final class TableExporter {
+
+    private static final int DEFAULT_MAX_TILE_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * PNG分块的输出
+     */
+    public interface StripOutput {
+        /**
+         * 打开第index块的输出流，导出完成后由导出器关闭
+         */
+        @NonNull
+        OutputStream openStrip(int index) throws IOException;
+    }
+
+    private final TableLayout mTable;
+    private int mMaxTileBytes = DEFAULT_MAX_TILE_BYTES;
+    private int mRepeatHeaderRows;
+    private int mBackgroundColor = Color.WHITE;
+    private int mWidth = 0;
+    /**
+     * 本次导出实际重复的表头行数
+     */
+    private int mHeaderRows;
+    private final Rect mArea = new Rect();
+
+    public TableExporter(@NonNull TableLayout table) {
+        mTable = table;
+        mRepeatHeaderRows = table.getFrozenRowCount();
+    }
+
+    /**
+     * PNG分块位图的最大字节数，默认4MB
+     */
+    public TableExporter setMaxTileBytes(int maxTileBytes) {
+        if (maxTileBytes <= 0) {
+            throw new IllegalArgumentException("maxTileBytes must be positive");
+        }
+        mMaxTileBytes = maxTileBytes;
+        return this;
+    }
+
+    /**
+     * 在第一页之后的每页顶部重复的行数，默认为表格固定的表头行数，0表示不重复
+     */
+    public TableExporter setRepeatHeaderRows(int rows) {
+        mRepeatHeaderRows = Math.max(rows, 0);
+        return this;
+    }
+
+    public TableExporter setBackgroundColor(int color) {
+        mBackgroundColor = color;
+        return this;
+    }
+
+    /**
+     * 表格未布局时使用的宽度，0表示按内容测量
+     */
+    public TableExporter setWidth(int width) {
+        mWidth = Math.max(width, 0);
+        return this;
+    }
+
+    /**
+     * 导出为多张PNG图片，从上到下每张为一段完整宽度的行
+     *
+     * @return 图片数量
+     */
+    @MainThread
+    public int exportPngStrips(@NonNull StripOutput output) throws IOException {
+        ensureLaidOut();
+        int width = mTable.getExportWidth();
+        if (width <= 0 || mTable.getExportHeight() <= 0) {
+            return 0;
+        }
+        int maxHeight = Math.max(1, (int) Math.min(mMaxTileBytes / (4L * width), Integer.MAX_VALUE));
+        List<int[]> pages = paginate(maxHeight);
+        Bitmap bitmap = null;
+        mTable.beginExport();
+        try {
+            for (int i = 0; i < pages.size(); i++) {
+                int[] page = pages.get(i);
+                int height = Math.min(pageHeight(page[0], page[1]), maxHeight);
+                if (bitmap == null) {
+                    bitmap = Bitmap.createBitmap(width, maxHeight, Bitmap.Config.ARGB_8888);
+                }
+                //复用同一块内存
+                bitmap.reconfigure(width, height, Bitmap.Config.ARGB_8888);
+                bitmap.eraseColor(mBackgroundColor);
+                renderPage(new Canvas(bitmap), page[0], page[1]);
+                OutputStream out = output.openStrip(i);
+                try {
+                    if (!bitmap.compress(Bitmap.CompressFormat.PNG, 100, out)) {
+                        throw new IOException("Failed to encode strip " + i);
+                    }
+                } finally {
+                    out.close();
+                }
+            }
+        } finally {
+            mTable.endExport();
+            if (bitmap != null) {
+                bitmap.recycle();
+            }
+        }
+        return pages.size();
+    }
+
+    /**
+     * 导出为目录下的多张PNG图片，文件名为 前缀_序号.png
+     */
+    @MainThread
+    public List<File> exportPngStrips(@NonNull final File directory, @NonNull final String prefix) throws IOException {
+        final List<File> files = new ArrayList<>();
+        exportPngStrips(new StripOutput() {
+            @NonNull
+            @Override
+            public OutputStream openStrip(int index) throws IOException {
+                File file = new File(directory, prefix + "_" + index + ".png");
+                files.add(file);
+                return new FileOutputStream(file);
+            }
+        });
+        return files;
+    }
+
+    /**
+     * 导出为PDF，表格按比例缩放到页面宽度，按行分页
+     *
+     * @param pageWidth  页面宽度(pt)
+     * @param pageHeight 页面高度(pt)
+     * @return 页数
+     */
+    @MainThread
+    public int exportPdf(@NonNull OutputStream out, int pageWidth, int pageHeight) throws IOException {
+        if (pageWidth <= 0 || pageHeight <= 0) {
+            throw new IllegalArgumentException("Invalid page size " + pageWidth + "x" + pageHeight);
+        }
+        ensureLaidOut();
+        int width = mTable.getExportWidth();
+        if (width <= 0 || mTable.getExportHeight() <= 0) {
+            return 0;
+        }
+        float scale = (float) pageWidth / width;
+        List<int[]> pages = paginate(Math.max(1, (int) (pageHeight / scale)));
+        PdfDocument document = new PdfDocument();
+        mTable.beginExport();
+        try {
+            for (int i = 0; i < pages.size(); i++) {
+                int[] page = pages.get(i);
+                PdfDocument.Page pdfPage = document.startPage(new PdfDocument.PageInfo.Builder(pageWidth, pageHeight, i + 1).create());
+                Canvas canvas = pdfPage.getCanvas();
+                canvas.drawColor(mBackgroundColor);
+                canvas.scale(scale, scale);
+                renderPage(canvas, page[0], page[1]);
+                document.finishPage(pdfPage);
+            }
+            document.writeTo(out);
+        } finally {
+            mTable.endExport();
+            document.close();
+        }
+        return pages.size();
+    }
+
+    /**
+     * 按行分页，每页至少一行，行高超过页面时被裁剪
+     *
+     * @return 每页的[起始行, 结束行)
+     */
+    private List<int[]> paginate(int maxHeight) {
+        int rowCount = mTable.getRowAxis().getCount();
+        mHeaderRows = Math.min(mRepeatHeaderRows, rowCount);
+        if (mHeaderRows > 0 && headerHeight() >= maxHeight) {
+            //页面放不下表头和至少一行正文，不重复表头
+            mHeaderRows = 0;
+        }
+        List<int[]> pages = new ArrayList<>();
+        int start = 0;
+        while (start < rowCount) {
+            int end = start + 1;
+            while (end < rowCount && pageHeight(start, end + 1) <= maxHeight) {
+                end++;
+            }
+            pages.add(new int[]{start, end});
+            start = end;
+        }
+        return pages;
+    }
+
+    /**
+     * 页面高度，包括重复的表头和最后一行下方的边框
+     */
+    private int pageHeight(int startRow, int endRow) {
+        TableAxis rows = mTable.getRowAxis();
+        int height = rows.offsetOf(endRow) - rows.offsetOf(startRow) + rows.getBorderWidth();
+        if (mHeaderRows > 0 && startRow >= mHeaderRows) {
+            height += headerHeight();
+        }
+        return height;
+    }
+
+    /**
+     * 重复的表头高度，不包括表头下方的边框(与正文第一行上方的边框重合)
+     */
+    private int headerHeight() {
+        return mHeaderRows > 0 ? mTable.getRowAxis().offsetOf(mHeaderRows) : 0;
+    }
+
+    private void renderPage(Canvas canvas, int startRow, int endRow) {
+        TableAxis rows = mTable.getRowAxis();
+        int width = mTable.getExportWidth();
+        int y = 0;
+        if (mHeaderRows > 0 && startRow >= mHeaderRows) {
+            mArea.set(0, 0, width, headerHeight());
+            mTable.exportArea(canvas, mArea);
+            y = mArea.bottom;
+        }
+        int top = rows.offsetOf(startRow);
+        mArea.set(0, top, width, rows.offsetOf(endRow) + rows.getBorderWidth());
+        canvas.save();
+        canvas.translate(0, y - top);
+        mTable.exportArea(canvas, mArea);
+        canvas.restore();
+    }
+
+    /**
+     * 没有显示在窗口中且未布局的表格按内容测量和布局
+     */
+    private void ensureLaidOut() {
+        if (mTable.isAttachedToWindow() || !mTable.isLayoutRequested() && mTable.getWidth() > 0) {
+            return;
+        }
+        int width = mWidth > 0 ? mWidth : mTable.getWidth();
+        int widthSpec = width > 0
+                ? View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY)
+                : View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        mTable.measure(widthSpec, View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        mTable.layout(0, 0, mTable.getMeasuredWidth(), mTable.getMeasuredHeight());
+    }
+}
@@ -2,31 +2,54 @@ package com.github.jeffery.tablelayout;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.database.DataSetObserver;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.DashPathEffect;
 import android.graphics.Paint;
-import android.graphics.PorterDuff;
-import android.graphics.PorterDuffXfermode;
+import android.graphics.Rect;
+import android.os.Build;
+import android.text.Layout;
+import android.text.StaticLayout;
 import android.util.AttributeSet;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.Choreographer;
 import android.view.Gravity;
 import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
 import android.widget.FrameLayout;
+import android.widget.OverScroller;
 
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.core.view.GestureDetectorCompat;
 
 import com.github.jeffery.tablelayout.R;
-
+import com.github.jeffery.tablelayout.engine.BorderGeometry;
+import com.github.jeffery.tablelayout.engine.CellIndex;
+import com.github.jeffery.tablelayout.engine.CellSelection;
+import com.github.jeffery.tablelayout.engine.SpanIndex;
+import com.github.jeffery.tablelayout.engine.TableAxis;
+import com.github.jeffery.tablelayout.engine.TableGeometry;
+import com.github.jeffery.tablelayout.engine.TableModel;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author mxlei
@@ -34,6 +57,23 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class TableLayout extends ViewGroup {
 
+    /**
+     * 不根据内容调整行高列宽
+     */
+    public static final int AUTO_SIZE_NONE = 0;
+    /**
+     * 列宽等于该列中最宽的内容
+     */
+    public static final int AUTO_SIZE_COLUMNS = 1;
+    /**
+     * 行高等于该行中最高的内容
+     */
+    public static final int AUTO_SIZE_ROWS = 2;
+    /**
+     * 同时根据内容调整行高和列宽
+     */
+    public static final int AUTO_SIZE_ALL = AUTO_SIZE_COLUMNS | AUTO_SIZE_ROWS;
+
     /**
      * 列数
      */
@@ -50,19 +90,31 @@ public class TableLayout extends ViewGroup {
      * 边框画笔
      */
     private final Paint mBorderPaint;
-    private final Paint mBorderPaintClear;
     /**
      * 颜色
      */
     private int mColor = Color.BLACK;
     /**
-     * 默认列宽
+     * 列宽与列坐标，未单独设置宽度的列使用默认列宽
+     */
+    private final TableAxis mColumnAxis = new TableAxis();
+    /**
+     * 行高与行坐标，未单独设置高度的行使用默认行高
+     */
+    private final TableAxis mRowAxis = new TableAxis();
+    /**
+     * 固定列宽，大于0时表格宽度超出父容器的部分可以滑动，否则所有列平分表格宽度
+     */
+    private int mFixedColumnWidth = 0;
+    /**
+     * 固定行高，大于0时表格高度超出父容器的部分可以滑动，否则所有行平分表格高度
      */
-    private int mDefaultColumnWidth = 0;
+    private int mFixedRowHeight = 0;
     /**
-     * 默认行高
+     * 根据内容调整行高列宽的方式，{@link #AUTO_SIZE_NONE}等
      */
-    private int mDefaultRowHeight = 0;
+    private int mAutoSizeMode = AUTO_SIZE_NONE;
+    private final OverScroller mScroller;
     /**
      * 当前获取焦点的单元格
      */
@@ -80,14 +132,234 @@ public class TableLayout extends ViewGroup {
      * 是否处于多选模式
      */
     private boolean mMultiSelectMode = false;
+    /**
+     * 多选模式下选中的区域
+     */
+    private final CellSelection mSelection = new CellSelection();
+    /**
+     * 多选模式下是否可以拖动选择矩形区域，关闭时拖动用于滑动表格
+     */
+    private boolean mDragSelectEnabled = false;
+    /**
+     * 拖动选择的状态，触摸坐标为View坐标，每帧最多更新一次选区
+     */
+    private boolean mDragSelecting = false;
+    private boolean mDragSelected = false;
+    private int mDragAnchorRow;
+    private int mDragAnchorColumn;
+    private float mDragX;
+    private float mDragY;
+    private CellSelection.Range mDragRange;
+    /**
+     * 开始拖动前的选区，拖动的矩形与之合并
+     */
+    private final CellSelection mDragBaseSelection = new CellSelection();
+    private final ArrayList<CellSelection.Range> mDragDirtyRanges = new ArrayList<>();
+    /**
+     * 拖动到边缘时自动滚动的区域大小(px)
+     */
+    private final int mAutoScrollEdge;
+    private boolean mDragFrameScheduled = false;
+    private final Choreographer.FrameCallback mDragFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mDragFrameScheduled = false;
+            updateDragSelection();
+        }
+    };
     private boolean mConsumeTouchEvent = true;
 
-    private final Map<String, TableCell> cellData = new ConcurrentHashMap<>();
-    private final GestureDetectorCompat gestureDetectorCompat;
+    private CellIndex<TableCell> cellData = new CellIndex<>();
+    /**
+     * 合并单元格占用索引，由cellData中跨度大于1的单元格维护
+     */
+    private SpanIndex spanIndex = new SpanIndex();
+    /**
+     * 内边框线段缓存
+     */
+    private final BorderGeometry mBorderGeometry = new BorderGeometry();
+    /**
+     * 固定不随滑动的表头行数和列数
+     */
+    private int mFrozenRowCount = 0;
+    private int mFrozenColumnCount = 0;
+    private int mHeaderBackgroundColor = Color.WHITE;
+    /**
+     * 表头的位图缓存：左上角、顶部(随横向滑动)、左侧(随纵向滑动)
+     */
+    private final HeaderCache mCornerHeaderCache = new HeaderCache();
+    private final HeaderCache mTopHeaderCache = new HeaderCache();
+    private final HeaderCache mLeftHeaderCache = new HeaderCache();
+    private final BorderGeometry mHeaderBorderGeometry = new BorderGeometry();
+    /**
+     * 表头内容有变化，需要重新绘制缓存
+     */
+    private boolean mHeaderDirty = true;
+    /**
+     * 表头和分块缓存绘制时的行列大小和合并单元格版本
+     */
+    private int mContentRowModCount;
+    private int mContentColumnModCount;
+    private int mContentSpanModCount;
+    private final Rect mHeaderRect = new Rect();
+    /**
+     * 缩放比例，只影响绘制和触摸坐标，单元格仍按原始大小测量和布局
+     */
+    private float mZoom = 1f;
+    private float mMinZoom = DEFAULT_MIN_ZOOM;
+    private float mMaxZoom = DEFAULT_MAX_ZOOM;
+    private boolean mZoomEnabled = false;
+    private final ScaleGestureDetector mScaleDetector;
+    /**
+     * 本次触摸是否为缩放手势，手势结束前不再处理点击和滑动
+     */
+    private boolean mZoomGestureActive = false;
+    /**
+     * 缩放手势期间显示的截图，按手势的比例缩放，手势结束后按最终比例重新布局一次
+     */
+    private Bitmap mZoomSnapshot;
+    private boolean mZoomSnapshotActive = false;
+    private float mGestureScale = 1f;
+    private float mZoomFocusX;
+    private float mZoomFocusY;
+    private final Paint mZoomSnapshotPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    /**
+     * 不创建View、由表格直接绘制的文本单元格，合并单元格记录在左上角的格子
+     */
+    private final CellIndex<CellText> mCellTexts = new CellIndex<>();
+    private CellTextStyle mDefaultTextStyle;
+    /**
+     * 最近绘制的文本排版缓存，按文本单元格对象(每次设置文本时新建)缓存，宽度和对齐方式不变时直接使用。
+     * 重新设置文本后旧的排版不再命中，由LRU淘汰
+     */
+    private final LruCache<CellText, StaticLayout> mTextLayoutCache = new LruCache<>(TEXT_LAYOUT_CACHE_SIZE);
+    /**
+     * 图片单元格，图片按单元格大小在后台解码后绘制，合并单元格记录在左上角的格子
+     */
+    private final CellIndex<CellImageSource> mCellImages = new CellIndex<>();
+    private CellImageCache mImageCache;
+    /**
+     * 正在解码的缓存键，避免重复解码
+     */
+    private final Set<String> mPendingImageKeys = new HashSet<>();
+    private final Paint mImagePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect mImageRect = new Rect();
+    /**
+     * 是否正在通过{@link TableExporter}导出
+     */
+    private boolean mExporting = false;
+    private final BorderGeometry mExportBorderGeometry = new BorderGeometry();
+    private final Rect mHeaderStripRect = new Rect();
+    /**
+     * 内容的分块位图缓存，null表示不使用
+     */
+    private TileCache mTileCache;
+    private int mTileCacheMaxBytes = (int) Math.min(Runtime.getRuntime().maxMemory() / 16, Integer.MAX_VALUE);
+    private final BorderGeometry mTileBorderGeometry = new BorderGeometry();
+    private final Rect mTileArea = new Rect();
+    private final TileCache.Renderer mTileRenderer = new TileCache.Renderer() {
+        @Override
+        public void renderTile(Canvas canvas, Rect area) {
+            renderContent(canvas, area, mTileBorderGeometry);
+        }
+    };
+    private final TableGestureDetector mGestureDetector;
     private OnItemClickListener mOnItemClickListener;
     private OnItemClickListener mOnItemDoubleClickListener;
+    /**
+     * 内容适配器，设置后只有可见区域内的单元格才会创建View
+     */
+    private TableAdapter mAdapter;
+    private final ScrapViews mScrapViews = new ScrapViews();
+    private final DataSetObserver mAdapterObserver = new DataSetObserver() {
+        @Override
+        public void onChanged() {
+            recycleAdapterViews();
+            invalidateContentCaches();
+            requestLayout();
+        }
+
+        @Override
+        public void onInvalidated() {
+            onChanged();
+        }
+    };
+    /**
+     * 外层滚动容器滚动时更新可见区域
+     */
+    private final ViewTreeObserver.OnScrollChangedListener mOnScrollChangedListener = new ViewTreeObserver.OnScrollChangedListener() {
+        @Override
+        public void onScrollChanged() {
+            if (mAdapter != null && !isLayoutRequested() && updateVisibleRange()) {
+                populateAdapterViews();
+                invalidate();
+            }
+        }
+    };
+    /**
+     * 当前可见的行列区间(包含)
+     */
+    private final Rect mVisibleRect = new Rect();
+    private final Rect mDirtyRect = new Rect();
+    /**
+     * onDraw中画布的裁剪区域(缩放后的内容坐标)
+     */
+    private final Rect mClipRect = new Rect();
+    private final Rect mDrawRect = new Rect();
+    private int mFirstVisibleRow = 0;
+    private int mLastVisibleRow = -1;
+    private int mFirstVisibleColumn = 0;
+    private int mLastVisibleColumn = -1;
+    /**
+     * 最近一次测量中实际调用了measure的子View数量
+     */
+    private int mMeasuredChildCount = 0;
+    /**
+     * 批量编辑的嵌套层数，大于0时推迟合并区域索引维护、布局和重绘
+     */
+    private int mBatchDepth = 0;
+    private boolean mBatchLayoutRequested = false;
+    private boolean mBatchInvalidated = false;
+    /**
+     * 等待追加的行数据流，按顺序逐帧添加
+     */
+    private final ArrayDeque<TableRowStream> mAppendStreams = new ArrayDeque<>();
+    /**
+     * 每帧用于追加行的时间(ns)
+     */
+    private long mAppendFrameBudgetNanos = DEFAULT_APPEND_FRAME_BUDGET_NANOS;
+    private boolean mAppendScheduled = false;
+    private final Choreographer.FrameCallback mAppendFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mAppendScheduled = false;
+            appendPendingRows();
+        }
+    };
+    private final Runnable mScheduleAppend = new Runnable() {
+        @Override
+        public void run() {
+            scheduleAppend();
+        }
+    };
+    /**
+     * 数据流有新数据时在后台线程回调，切换到主线程调度
+     */
+    private final Runnable mAppendNotifier = new Runnable() {
+        @Override
+        public void run() {
+            post(mScheduleAppend);
+        }
+    };
 
     private static final String TAG = "TableLayout";
+    private static final long DEFAULT_APPEND_FRAME_BUDGET_NANOS = 8000000L;
+    private static final int AUTO_SCROLL_EDGE_DP = 32;
+    private static final float DEFAULT_MIN_ZOOM = 0.5f;
+    private static final float DEFAULT_MAX_ZOOM = 3f;
+    private static final int TEXT_LAYOUT_CACHE_SIZE = 512;
+    private static final int DEFAULT_TEXT_SIZE_SP = 14;
+    private static final int DEFAULT_TEXT_PADDING_DP = 4;
 
     public TableLayout(Context context) {
         this(context, null);
@@ -103,53 +375,87 @@ public class TableLayout extends ViewGroup {
 
     public TableLayout(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
         super(context, attrs, defStyleAttr, defStyleRes);
-        setLayerType(View.LAYER_TYPE_SOFTWARE, null);
         mBorderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         mBorderPaint.setColor(Color.BLACK);
         mBorderPaint.setStyle(Paint.Style.STROKE);
         mBorderPaint.setStrokeWidth(mBorderWidth);
-        mBorderPaintClear = new Paint();
-        mBorderPaintClear.setAlpha(0xFF);
-        mBorderPaintClear.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.CLEAR));
         mFocusedCellBackgroundPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         mFocusedCellBackgroundPaint.setColor(mFocusedCellBackgroundColor);
         mFocusedCellBackgroundPaint.setStyle(Paint.Style.FILL);
+        mScroller = new OverScroller(context);
         TableGestureListener gestureListener = new TableGestureListener() {
 
-            private TableCell calTableCell(MotionEvent e) {
-                int column = (int) (e.getX() / (mDefaultColumnWidth + mBorderWidth));
-                int row = (int) (e.getY() / (mDefaultRowHeight + mBorderWidth));
-                TableCell eventCell = null;
-                //判断触摸点是否在合并单元格区间
-                for (TableCell cell : cellData.values()) {
-                    if (row >= cell.getRow()
-                            && row < cell.getRow() + cell.getRowSpan()
-                            && column >= cell.getCol()
-                            && column < cell.getCol() + cell.getColSpan()
-                    ) {
-                        eventCell = cell;
-                        break;
+            @Override
+            public boolean onDown(MotionEvent e) {
+                if (!mScroller.isFinished()) {
+                    mScroller.abortAnimation();
+                }
+                mDragSelected = false;
+                return super.onDown(e);
+            }
+
+            @Override
+            public void onUp(MotionEvent ev) {
+                stopDragSelection();
+            }
+
+            @Override
+            public void onCancel(MotionEvent ev) {
+                stopDragSelection();
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                if (mMultiSelectMode && mDragSelectEnabled && e1 != null && mRowCount > 0 && mColumnCount > 0) {
+                    if (!mDragSelecting) {
+                        startDragSelection(e1.getX(), e1.getY());
                     }
+                    mDragX = e2.getX();
+                    mDragY = e2.getY();
+                    scheduleDragFrame();
+                    return true;
+                }
+                if (getScrollRangeX() == 0 && getScrollRangeY() == 0) {
+                    return false;
+                }
+                if (getParent() != null) {
+                    getParent().requestDisallowInterceptTouchEvent(true);
                 }
-                return eventCell == null ? new TableCell(row, column) : eventCell;
+                scrollBy((int) distanceX, (int) distanceY);
+                return true;
             }
 
+            @Override
+            public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+                int rangeX = getScrollRangeX();
+                int rangeY = getScrollRangeY();
+                if (mDragSelected) {
+                    return true;
+                }
+                if (rangeX == 0 && rangeY == 0) {
+                    return false;
+                }
+                mScroller.fling(getScrollX(), getScrollY(), (int) -velocityX, (int) -velocityY, 0, rangeX, 0, rangeY);
+                postInvalidateOnAnimation();
+                return true;
+            }
 
             @Override
             public boolean onSingleTapUp(MotionEvent e) {
-                TableCell cell = calTableCell(e);
-                int row = cell.getRow();
-                int column = cell.getCol();
+                long key = hitTestCell(toContentX(e.getX()), toContentY(e.getY()));
+                int row = CellIndex.unpackRow(key);
+                int column = CellIndex.unpackCol(key);
+                TableCell cell = cellData.get(row, column);
+                if (cell == null) {
+                    cell = new TableCell(row, column);
+                }
                 if (mMultiSelectMode) {
-                    cell.setSelected(!cell.isSelected());
-                    if (cell.isSelected()) {
-                        cellData.put(genCellMapKey(row, column), cell);
-                    } else if (isDefaultCellLayoutParam(cell)) {
-                        cellData.remove(cell);
-                    }
+                    mSelection.toggle(row, column, cell.getRowSpan(), cell.getColSpan());
                 }
+                //只重绘焦点变化的两个单元格
+                invalidateCell(mFocusedCell);
                 mFocusedCell = cell;
-                invalidate();
+                invalidateCell(cell);
                 if (mOnItemClickListener != null) {
                     return mOnItemClickListener.onItemClick(mFocusedCell);
                 }
@@ -159,9 +465,9 @@ public class TableLayout extends ViewGroup {
             @Override
             public boolean onDoubleTap(MotionEvent e) {
                 if (mOnItemDoubleClickListener != null) {
-                    TableCell cell = calTableCell(e);
-                    int row = cell.getRow();
-                    int column = cell.getCol();
+                    long key = hitTestCell(toContentX(e.getX()), toContentY(e.getY()));
+                    int row = CellIndex.unpackRow(key);
+                    int column = CellIndex.unpackCol(key);
                     if (mFocusedCell != null && row == mFocusedCell.getRow() && column == mFocusedCell.getCol()) {
                         return mOnItemDoubleClickListener.onItemClick(mFocusedCell);
                     }
@@ -169,8 +475,36 @@ public class TableLayout extends ViewGroup {
                 return super.onDoubleTap(e);
             }
         };
-        new TableGestureDetector(context, gestureListener);
-        gestureDetectorCompat = new GestureDetectorCompat(context, gestureListener);
+        mGestureDetector = new TableGestureDetector(context, gestureListener);
+        mAutoScrollEdge = (int) (AUTO_SCROLL_EDGE_DP * context.getResources().getDisplayMetrics().density);
+        float density = context.getResources().getDisplayMetrics().density;
+        float scaledDensity = context.getResources().getDisplayMetrics().scaledDensity;
+        mDefaultTextStyle = new CellTextStyle(DEFAULT_TEXT_SIZE_SP * scaledDensity, Color.BLACK,
+                null, (int) (DEFAULT_TEXT_PADDING_DP * density));
+        mScaleDetector = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScaleBegin(ScaleGestureDetector detector) {
+                if (!mZoomEnabled) {
+                    return false;
+                }
+                startZoomGesture(detector.getFocusX(), detector.getFocusY());
+                return true;
+            }
+
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                mGestureScale = clampZoom(mZoom * mGestureScale * detector.getScaleFactor()) / mZoom;
+                invalidate();
+                return true;
+            }
+
+            @Override
+            public void onScaleEnd(ScaleGestureDetector detector) {
+                finishZoomGesture();
+            }
+        });
+        //双击已用于单元格的双击事件
+        mScaleDetector.setQuickScaleEnabled(false);
         setWillNotDraw(false);
         initAttributes(context, attrs, defStyleAttr, defStyleRes);
     }
@@ -186,6 +520,25 @@ public class TableLayout extends ViewGroup {
         private int rowSpan = 1;
         private int row = 0;
         private int column = 0;
+        /**
+         * 由适配器创建的View的类型，直接添加的View为{@link TableAdapter#VIEW_TYPE_NONE}
+         */
+        private int viewType = TableAdapter.VIEW_TYPE_NONE;
+        /**
+         * 按内容计算列宽、行高时的测量缓存
+         */
+        private final ContentMeasure columnMeasure = new ContentMeasure();
+        private final ContentMeasure rowMeasure = new ContentMeasure();
+        /**
+         * 上一次测量使用的约束，约束不变且View没有请求重新布局时跳过测量
+         */
+        private boolean measured = false;
+        private int lastWidthSpec;
+        private int lastHeightSpec;
+        /**
+         * 是否已由表格摆放过，新的LayoutParams总是需要重新摆放
+         */
+        private boolean laidOut = false;
 
         public LayoutParams(Context c, AttributeSet attrs) {
             super(c, attrs);
@@ -247,6 +600,32 @@ public class TableLayout extends ViewGroup {
         }
     }
 
+    /**
+     * 单元格按内容测量的结果，约束、跨度不变且View内容未变化时直接复用
+     */
+    private static final class ContentMeasure {
+        private boolean valid = false;
+        private int widthSpec;
+        private int heightSpec;
+        private int rowSpan;
+        private int columnSpan;
+        private int width;
+        private int height;
+    }
+
+    /**
+     * 文本单元格的内容，不可修改，修改文本时替换为新的对象，旧的排版缓存随之失效
+     */
+    private static final class CellText {
+        private final CharSequence text;
+        private final CellTextStyle style;
+
+        private CellText(CharSequence text, CellTextStyle style) {
+            this.text = text;
+            this.style = style;
+        }
+    }
+
     private void initAttributes(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
         final TypedArray a = context.obtainStyledAttributes(
                 attrs, R.styleable.TableLayout,
@@ -255,6 +634,8 @@ public class TableLayout extends ViewGroup {
         mRowCount = a.getInteger(R.styleable.TableLayout_android_rowCount, mRowCount);
         mBorderWidth = (int) a.getDimension(R.styleable.TableLayout_android_strokeWidth, mBorderWidth);
         mColor = a.getColor(R.styleable.TableLayout_android_color, mColor);
+        mFixedColumnWidth = a.getDimensionPixelSize(R.styleable.TableLayout_android_columnWidth, mFixedColumnWidth);
+        mFixedRowHeight = a.getDimensionPixelSize(R.styleable.TableLayout_android_rowHeight, mFixedRowHeight);
         mBorderPaint.setColor(mColor);
         a.recycle();
     }
@@ -262,106 +643,247 @@ public class TableLayout extends ViewGroup {
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        mColumnAxis.setCount(mColumnCount);
+        mColumnAxis.setBorderWidth(mBorderWidth);
+        mRowAxis.setCount(mRowCount);
+        mRowAxis.setBorderWidth(mBorderWidth);
         int allBorderWidth = mColumnCount == 0 ? 0 : (mColumnCount + 1) * mBorderWidth;
         int allBorderHeight = mRowCount == 0 ? 0 : (mRowCount + 1) * mBorderWidth;
-        int measuredWidth = getMeasuredWidth();
-        int measuredHeight = getMeasuredHeight();
-        boolean changedMeasuredSize = false;
-        if (measuredWidth < allBorderWidth) {
-            measuredWidth = allBorderWidth;
-            changedMeasuredSize = true;
-        }
-        if (measuredHeight < allBorderHeight) {
-            measuredHeight = allBorderHeight;
-            changedMeasuredSize = true;
-        }
-        if (changedMeasuredSize) {
-            setMeasuredDimension(measuredWidth, measuredHeight);
-        }
-        if (mColumnCount == 0) {
-            mDefaultColumnWidth = 0;
+        mMeasuredChildCount = 0;
+        //列宽
+        if ((mAutoSizeMode & AUTO_SIZE_COLUMNS) != 0) {
+            measureColumnContent();
+        } else {
+            mColumnAxis.clearMeasuredSizes();
+        }
+        int measuredWidth = Math.max(getMeasuredWidth(), allBorderWidth);
+        if (mFixedColumnWidth > 0) {
+            mColumnAxis.setDefaultSize(mFixedColumnWidth);
+        } else {
+            mColumnAxis.setDefaultSize(fitDefaultSize(mColumnAxis, measuredWidth - allBorderWidth));
+        }
+        if (isColumnContentSized()) {
+            measuredWidth = Math.max(resolveSize(scaled(mColumnAxis.getTotalSize()), widthMeasureSpec), allBorderWidth);
+        }
+        //行高，需要在列宽确定后测量
+        if ((mAutoSizeMode & AUTO_SIZE_ROWS) != 0) {
+            measureRowContent();
         } else {
-            mDefaultColumnWidth = (int) Math.ceil((getMeasuredWidth() - allBorderWidth) / (float) mColumnCount);
+            mRowAxis.clearMeasuredSizes();
         }
-        if (mRowCount == 0) {
-            mDefaultRowHeight = 0;
+        int measuredHeight = Math.max(getMeasuredHeight(), allBorderHeight);
+        if (mFixedRowHeight > 0) {
+            mRowAxis.setDefaultSize(mFixedRowHeight);
         } else {
-            mDefaultRowHeight = (int) Math.ceil((getMeasuredHeight() - allBorderHeight) / (float) mRowCount);
+            mRowAxis.setDefaultSize(fitDefaultSize(mRowAxis, measuredHeight - allBorderHeight));
         }
+        if (isRowContentSized()) {
+            measuredHeight = Math.max(resolveSize(scaled(mRowAxis.getTotalSize()), heightMeasureSpec), allBorderHeight);
+        }
+        setMeasuredDimension(measuredWidth, measuredHeight);
 
         for (int i = 0, N = getChildCount(); i < N; i++) {
             View c = getChildAt(i);
             if (c.getVisibility() == GONE) {
                 continue;
             }
+            measureCellChild(c);
+        }
+    }
+
+    /**
+     * 未单独设置尺寸的行(列)平分剩余空间
+     */
+    private static int fitDefaultSize(TableAxis axis, int contentSize) {
+        int defaultCount = axis.getCount() - axis.getExplicitCount();
+        if (defaultCount <= 0) {
+            return 0;
+        }
+        return (int) Math.max(0, Math.ceil((contentSize - axis.getExplicitSum()) / (double) defaultCount));
+    }
+
+    /**
+     * 列宽取该列中不跨列的单元格内容的最大宽度，单独设置了宽度的列除外
+     */
+    private void measureColumnContent() {
+        mColumnAxis.clearMeasuredSizes();
+        for (int i = 0, N = getChildCount(); i < N; i++) {
+            View c = getChildAt(i);
             LayoutParams lp = (LayoutParams) c.getLayoutParams();
-            int childMaxWidth = lp.columnSpan * mDefaultColumnWidth;
-            int childMaxHeight = lp.rowSpan * mDefaultRowHeight;
-            int childWidthSpec;
-            int childHeightSpec;
-            switch (lp.width) {
-                case LayoutParams.MATCH_PARENT:
-                    childWidthSpec = MeasureSpec.makeMeasureSpec(childMaxWidth, MeasureSpec.EXACTLY);
-                    break;
-                case LayoutParams.WRAP_CONTENT:
-                    childWidthSpec = MeasureSpec.makeMeasureSpec(childMaxWidth, MeasureSpec.AT_MOST);
-                    break;
-                default:
-                    childWidthSpec = MeasureSpec.makeMeasureSpec(Math.min(lp.width, childMaxWidth), MeasureSpec.EXACTLY);
+            if (c.getVisibility() == GONE || lp.columnSpan != 1 || lp.column >= mColumnCount
+                    || mColumnAxis.getConfiguredSize(lp.column) >= 0) {
+                continue;
             }
-            switch (lp.height) {
-                case LayoutParams.MATCH_PARENT:
-                    childHeightSpec = MeasureSpec.makeMeasureSpec(childMaxHeight, MeasureSpec.EXACTLY);
-                    break;
-                case LayoutParams.WRAP_CONTENT:
-                    childHeightSpec = MeasureSpec.makeMeasureSpec(childMaxHeight, MeasureSpec.AT_MOST);
-                    break;
-                default:
-                    childHeightSpec = MeasureSpec.makeMeasureSpec(Math.min(lp.height, childMaxHeight), MeasureSpec.EXACTLY);
+            ContentMeasure m = measureContent(c, lp, lp.columnMeasure,
+                    getContentSizeSpec(lp.width, -1), getContentSizeSpec(lp.height, -1));
+            if (m.width > mColumnAxis.getMeasuredSize(lp.column)) {
+                mColumnAxis.setMeasuredSize(lp.column, m.width);
+            }
+        }
+    }
+
+    /**
+     * 行高取该行中不跨行的单元格在列宽约束下的最大高度，单独设置了高度的行除外
+     */
+    private void measureRowContent() {
+        mRowAxis.clearMeasuredSizes();
+        for (int i = 0, N = getChildCount(); i < N; i++) {
+            View c = getChildAt(i);
+            LayoutParams lp = (LayoutParams) c.getLayoutParams();
+            if (c.getVisibility() == GONE || lp.rowSpan != 1 || lp.row >= mRowCount
+                    || mRowAxis.getConfiguredSize(lp.row) >= 0) {
+                continue;
             }
-            c.measure(childWidthSpec, childHeightSpec);
+            int cellWidth = mColumnAxis.spanSize(lp.column, lp.columnSpan);
+            ContentMeasure m = measureContent(c, lp, lp.rowMeasure,
+                    getContentSizeSpec(lp.width, cellWidth), getContentSizeSpec(lp.height, -1));
+            if (m.height > mRowAxis.getMeasuredSize(lp.row)) {
+                mRowAxis.setMeasuredSize(lp.row, m.height);
+            }
+        }
+    }
+
+    /**
+     * 按内容测量时的约束
+     *
+     * @param available 可用尺寸，小于0表示不限制
+     */
+    private static int getContentSizeSpec(int size, int available) {
+        if (size >= 0) {
+            return MeasureSpec.makeMeasureSpec(available < 0 ? size : Math.min(size, available), MeasureSpec.EXACTLY);
+        }
+        if (available < 0) {
+            return MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+        }
+        return MeasureSpec.makeMeasureSpec(available, MeasureSpec.AT_MOST);
+    }
+
+    /**
+     * 按内容测量单元格，约束和跨度不变且View没有请求重新布局时使用缓存的结果
+     */
+    private ContentMeasure measureContent(View c, LayoutParams lp, ContentMeasure m, int widthSpec, int heightSpec) {
+        if (m.valid
+                && m.widthSpec == widthSpec
+                && m.heightSpec == heightSpec
+                && m.rowSpan == lp.rowSpan
+                && m.columnSpan == lp.columnSpan
+                && !c.isLayoutRequested()) {
+            return m;
+        }
+        c.measure(widthSpec, heightSpec);
+        mMeasuredChildCount++;
+        m.valid = true;
+        m.widthSpec = widthSpec;
+        m.heightSpec = heightSpec;
+        m.rowSpan = lp.rowSpan;
+        m.columnSpan = lp.columnSpan;
+        m.width = c.getMeasuredWidth();
+        m.height = c.getMeasuredHeight();
+        return m;
+    }
+
+    private void measureCellChild(View c) {
+        LayoutParams lp = (LayoutParams) c.getLayoutParams();
+        int childMaxWidth = mColumnAxis.spanSize(lp.column, lp.columnSpan);
+        int childMaxHeight = mRowAxis.spanSize(lp.row, lp.rowSpan);
+        int childWidthSpec;
+        int childHeightSpec;
+        switch (lp.width) {
+            case LayoutParams.MATCH_PARENT:
+                childWidthSpec = MeasureSpec.makeMeasureSpec(childMaxWidth, MeasureSpec.EXACTLY);
+                break;
+            case LayoutParams.WRAP_CONTENT:
+                childWidthSpec = MeasureSpec.makeMeasureSpec(childMaxWidth, MeasureSpec.AT_MOST);
+                break;
+            default:
+                childWidthSpec = MeasureSpec.makeMeasureSpec(Math.min(lp.width, childMaxWidth), MeasureSpec.EXACTLY);
         }
+        switch (lp.height) {
+            case LayoutParams.MATCH_PARENT:
+                childHeightSpec = MeasureSpec.makeMeasureSpec(childMaxHeight, MeasureSpec.EXACTLY);
+                break;
+            case LayoutParams.WRAP_CONTENT:
+                childHeightSpec = MeasureSpec.makeMeasureSpec(childMaxHeight, MeasureSpec.AT_MOST);
+                break;
+            default:
+                childHeightSpec = MeasureSpec.makeMeasureSpec(Math.min(lp.height, childMaxHeight), MeasureSpec.EXACTLY);
+        }
+        if (lp.measured
+                && lp.lastWidthSpec == childWidthSpec
+                && lp.lastHeightSpec == childHeightSpec
+                && !c.isLayoutRequested()) {
+            //约束和内容都没有变化，保留上次的测量结果
+            return;
+        }
+        c.measure(childWidthSpec, childHeightSpec);
+        lp.measured = true;
+        lp.lastWidthSpec = childWidthSpec;
+        lp.lastHeightSpec = childHeightSpec;
+        mMeasuredChildCount++;
     }
 
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
-        for (TableCell cell : cellData.values()) {
-            View c = cell.getView();
+        if (getScrollX() > getScrollRangeX() || getScrollY() > getScrollRangeY()) {
+            //内容变小后修正滑动位置
+            scrollTo(getScrollX(), getScrollY());
+        }
+        if (mAdapter != null) {
+            updateVisibleRange();
+            populateAdapterViews();
+        }
+        for (int i = 0, n = cellData.capacity(); i < n; i++) {
+            TableCell cell = cellData.valueAt(i);
+            View c = cell == null ? null : cell.getView();
             if (c == null || c.getVisibility() == View.GONE) {
                 continue;
             }
-            LayoutParams lp = (LayoutParams) c.getLayoutParams();
-            int gravity = lp.gravity;
-            int x = lp.column * (mBorderWidth + mDefaultColumnWidth) + mBorderWidth;
-            int y = lp.row * (mBorderWidth + mDefaultRowHeight) + mBorderWidth;
-            int cellWidth = lp.columnSpan * mDefaultColumnWidth;
-            int cellHeight = lp.rowSpan * mDefaultRowHeight;
-            int measuredWidth = c.getMeasuredWidth();
-            int measuredHeight = c.getMeasuredHeight();
-            c.setLeft(x);
-            c.setTop(y);
-            c.setRight(x + cellWidth);
-            c.setBottom(y + cellHeight);
-
-            final int layoutDirection = getLayoutDirection();
-            final int absoluteGravity = Gravity.getAbsoluteGravity(gravity, layoutDirection);
-            final int verticalGravity = gravity & Gravity.VERTICAL_GRAVITY_MASK;
-            switch (absoluteGravity & Gravity.HORIZONTAL_GRAVITY_MASK) {
-                case Gravity.CENTER_HORIZONTAL:
-                    x = x + cellWidth / 2 - measuredWidth / 2;
-                    break;
-                case Gravity.RIGHT:
-                    x = x + cellWidth - measuredWidth;
-            }
-            switch (verticalGravity) {
-                case Gravity.CENTER_VERTICAL:
-                    y = y + cellHeight / 2 - measuredHeight / 2;
-                    break;
-                case Gravity.BOTTOM:
-                    y = y + cellHeight - measuredHeight;
-                    break;
-            }
-            c.layout(x, y, x + measuredWidth, y + measuredHeight);
+            layoutCellChild(c);
+        }
+    }
+
+    private void layoutCellChild(View c) {
+        LayoutParams lp = (LayoutParams) c.getLayoutParams();
+        int gravity = lp.gravity;
+        int x = mColumnAxis.startOf(lp.column);
+        int y = mRowAxis.startOf(lp.row);
+        int cellWidth = mColumnAxis.spanSize(lp.column, lp.columnSpan);
+        int cellHeight = mRowAxis.spanSize(lp.row, lp.rowSpan);
+        int measuredWidth = c.getMeasuredWidth();
+        int measuredHeight = c.getMeasuredHeight();
+
+        final int layoutDirection = getLayoutDirection();
+        final int absoluteGravity = Gravity.getAbsoluteGravity(gravity, layoutDirection);
+        final int verticalGravity = gravity & Gravity.VERTICAL_GRAVITY_MASK;
+        switch (absoluteGravity & Gravity.HORIZONTAL_GRAVITY_MASK) {
+            case Gravity.CENTER_HORIZONTAL:
+                x = x + cellWidth / 2 - measuredWidth / 2;
+                break;
+            case Gravity.RIGHT:
+                x = x + cellWidth - measuredWidth;
+        }
+        switch (verticalGravity) {
+            case Gravity.CENTER_VERTICAL:
+                y = y + cellHeight / 2 - measuredHeight / 2;
+                break;
+            case Gravity.BOTTOM:
+                y = y + cellHeight - measuredHeight;
+                break;
+        }
+        if (lp.laidOut && !c.isLayoutRequested()
+                && c.getLeft() == x && c.getTop() == y
+                && c.getWidth() == measuredWidth && c.getHeight() == measuredHeight) {
+            //位置和内容都没有变化，不需要重新摆放
+            return;
+        }
+        if (lp.laidOut) {
+            invalidateTiles(c.getLeft(), c.getTop(), c.getRight(), c.getBottom());
+        }
+        c.layout(x, y, x + measuredWidth, y + measuredHeight);
+        invalidateTiles(x, y, x + measuredWidth, y + measuredHeight);
+        lp.laidOut = true;
+        if (lp.row < mFrozenRowCount || lp.column < mFrozenColumnCount) {
+            mHeaderDirty = true;
         }
     }
 
@@ -402,98 +924,549 @@ public class TableLayout extends ViewGroup {
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        int width = getWidth();
-        int height = getHeight();
-        int colW = mBorderWidth + mDefaultColumnWidth;
-        int rowH = mBorderWidth + mDefaultRowHeight;
+        if (mZoomSnapshotActive) {
+            drawZoomSnapshot(canvas);
+            return;
+        }
+        int width = getContentWidth();
+        int height = getContentHeight();
         float offset = mBorderWidth / 2f;
-        //绘制横线边框
-        for (int i = 1; i < mRowCount; i++) {
-            float y = (mDefaultRowHeight + mBorderWidth) * i + offset;
-            canvas.drawLine(0, y, width, y, mBorderPaint);
+        //只绘制与裁剪区域相交的行列：软件绘制时裁剪区域是invalidateCell的脏区域，硬件加速时为整个可见窗口
+        int scrollX = getScrollX();
+        int scrollY = getScrollY();
+        if (!canvas.getClipBounds(mClipRect)
+                || !mClipRect.intersect(scrollX, scrollY, scrollX + getWidth(), scrollY + getHeight())) {
+            return;
         }
-        //绘制竖线边框
-        for (int i = 1; i < mColumnCount; i++) {
-            float x = (mDefaultColumnWidth + mBorderWidth) * i + offset;
-            canvas.drawLine(x, 0, x, height, mBorderPaint);
+        int firstRow = Math.max(0, mRowAxis.indexAt(unscaled(mClipRect.top)));
+        int lastRow = mRowAxis.indexAt(unscaled(mClipRect.bottom - 1));
+        int firstCol = Math.max(0, mColumnAxis.indexAt(unscaled(mClipRect.left)));
+        int lastCol = mColumnAxis.indexAt(unscaled(mClipRect.right - 1));
+        int saveCount = canvas.save();
+        canvas.scale(mZoom, mZoom);
+        if (mTileCache != null) {
+            //选中状态绘制在分块下方，分块背景透明
+            drawSelection(canvas, firstRow, lastRow, firstCol, lastCol);
+            checkContentModCounts();
+            mTileCache.setScale(mZoom);
+            mTileArea.set(unscaled(mClipRect.left), unscaled(mClipRect.top),
+                    Math.min(unscaled(mClipRect.right - 1) + 1, width),
+                    Math.min(unscaled(mClipRect.bottom - 1) + 1, height));
+            mTileCache.draw(canvas, mTileArea, mTileRenderer);
+            canvas.restoreToCount(saveCount);
+            return;
         }
+        //绘制内边框，合并单元格内部的线段已被跳过
+        mBorderGeometry.update(spanIndex, mRowAxis, mColumnAxis, firstRow, lastRow, firstCol, lastCol);
+        canvas.drawLines(mBorderGeometry.getLines(), 0, mBorderGeometry.getLineLength(), mBorderPaint);
         //绘制边缘边框
-        canvas.drawRoundRect(offset, offset, width - offset, height - offset, 0f, 0f, mBorderPaint);
-        //清除合并单元格的内边框
-        for (TableCell cell : cellData.values()) {
-            if (cell.getRowSpan() > 1 || cell.getColSpan() > 1) {
-                int left = cell.getCol() * colW + mBorderWidth;
-                int top = cell.getRow() * rowH + mBorderWidth;
-                if (cell.getRowSpan() > 1 || cell.getColSpan() > 1) {
-                    if (left < width - mBorderWidth && top < height - mBorderWidth) {
-                        canvas.drawRect(left, top,
-                                Math.min(left + cell.getColSpan() * colW - mBorderWidth, width - mBorderWidth),
-                                Math.min(top + cell.getRowSpan() * rowH - mBorderWidth, height - mBorderWidth), mBorderPaintClear
-                        );
+        canvas.drawRect(offset, offset, width - offset, height - offset, mBorderPaint);
+        drawSelection(canvas, firstRow, lastRow, firstCol, lastCol);
+        drawCellContents(canvas, firstRow, lastRow, firstCol, lastCol);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * 绘制区域内的图片和文本单元格，合并单元格只在第一个可见的格子处理
+     */
+    private void drawCellContents(Canvas canvas, int firstRow, int lastRow, int firstCol, int lastCol) {
+        if (mCellTexts.isEmpty() && mCellImages.isEmpty()) {
+            return;
+        }
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstCol; c <= lastCol; c++) {
+                int row = r;
+                int column = c;
+                SpanIndex.Span span = spanIndex.find(r, c);
+                if (span != null) {
+                    if (r != Math.max(span.row, firstRow) || c != Math.max(span.col, firstCol)) {
+                        continue;
                     }
+                    row = span.row;
+                    column = span.col;
                 }
-            }
-        }
-        if (mMultiSelectMode) {
-            //绘制当前选中的单元格颜色
-            for (TableCell cell : cellData.values()) {
-                int left = cell.getCol() * colW + mBorderWidth;
-                int top = cell.getRow() * rowH + mBorderWidth;
-                if (cell.isSelected() && left < width - mBorderWidth && top < height - mBorderWidth) {
-                    canvas.drawRect(left, top,
-                            left + cell.getColSpan() * colW - mBorderWidth,
-                            top + cell.getRowSpan() * rowH - mBorderWidth, mFocusedCellBackgroundPaint);
+                CellImageSource image = mCellImages.get(row, column);
+                CellText text = mCellTexts.get(row, column);
+                if (image == null && text == null) {
+                    continue;
                 }
-            }
-        } else {
-            //绘制当前焦点的单元格颜色
-            if (mFocusedCell != null && mFocusedCell.getRow() >= 0 && mFocusedCell.getCol() >= 0) {
-                int left = mFocusedCell.getCol() * colW + mBorderWidth;
-                int top = mFocusedCell.getRow() * rowH + mBorderWidth;
-                if (left < width - mBorderWidth && top < height - mBorderWidth) {
-                    canvas.drawRect(left, top,
-                            left + mFocusedCell.getColSpan() * colW - mBorderWidth,
-                            top + mFocusedCell.getRowSpan() * rowH - mBorderWidth, mFocusedCellBackgroundPaint);
+                if (span != null) {
+                    getCellRect(row, column, span.rowSpan, span.colSpan, mDrawRect);
+                } else {
+                    getCellRect(row, column, 1, 1, mDrawRect);
+                }
+                TableCell cell = cellData.get(row, column);
+                int gravity = cell == null ? Gravity.CENTER : cell.getGravity();
+                if (image != null) {
+                    drawCellImage(canvas, row, column, image, gravity, mDrawRect);
+                }
+                if (text != null) {
+                    drawCellText(canvas, text, gravity, mDrawRect);
                 }
             }
         }
     }
 
-    public void addView(@NonNull View child, @NonNull TableCell cell) {
-        LayoutParams lp = generateLayoutParams(cell);
-        addView(child, -1, lp);
-    }
-
-    @Override
-    public void addView(@NonNull View child, int index, @Nullable ViewGroup.LayoutParams params) {
-        LayoutParams lp = (LayoutParams) params;
-        if (!checkLayoutParams(params)) {
-            lp = (LayoutParams) generateDefaultLayoutParams();
+    /**
+     * 按比例缩放到单元格内绘制图片，缓存中没有按该大小解码的图片时在后台解码，完成后重绘
+     */
+    private void drawCellImage(Canvas canvas, int row, int column, CellImageSource image, int gravity, Rect rect) {
+        int width = rect.width();
+        int height = rect.height();
+        if (width <= 0 || height <= 0) {
+            return;
         }
-        String key = genCellMapKey(lp.row, lp.column);
-        TableCell cell = cellData.get(key);
-        if (cell != null) {
-            View v = cell.getView();
-            if (v != null && v != child) {
-                removeView(v);
-                cell.setView(child);
+        String key = CellImageCache.keyOf(image, width, height);
+        Bitmap bitmap = getImageCache().get(key);
+        if (bitmap == null && mExporting) {
+            //导出时不能等待后台解码
+            try {
+                bitmap = CellImageCache.decodeSampled(image, width, height);
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to decode " + image.getKey(), e);
+            }
+            if (bitmap != null) {
+                getImageCache().put(key, bitmap);
             }
         }
-        super.addView(child, index, params);
+        if (bitmap == null) {
+            loadCellImage(row, column, image, key, width, height);
+            return;
+        }
+        float scale = Math.min((float) width / bitmap.getWidth(), (float) height / bitmap.getHeight());
+        int w = Math.round(bitmap.getWidth() * scale);
+        int h = Math.round(bitmap.getHeight() * scale);
+        Gravity.apply(gravity, w, h, rect, mImageRect, getLayoutDirection());
+        canvas.drawBitmap(bitmap, null, mImageRect, mImagePaint);
     }
 
-    public void removeViewAt(@Nullable TableCell cell) {
-        if (cell != null) {
-            View v = cell.getView();
-            if (v != null) {
-                removeView(v);
-            }
+    private void loadCellImage(final int row, final int column, final CellImageSource image,
+                               final String key, final int width, final int height) {
+        if (!mPendingImageKeys.add(key)) {
+            return;
         }
+        final CellImageCache cache = getImageCache();
+        CellImageCache.DECODE_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                Bitmap bitmap = null;
+                try {
+                    bitmap = CellImageCache.decodeSampled(image, width, height);
+                } catch (IOException | RuntimeException e) {
+                    Log.w(TAG, "Failed to decode " + image.getKey(), e);
+                }
+                final Bitmap result = bitmap;
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        mPendingImageKeys.remove(key);
+                        if (result == null) {
+                            return;
+                        }
+                        cache.put(key, result);
+                        //格子的图片没有被替换时才重绘
+                        if (mCellImages.get(row, column) == image) {
+                            if (row < mFrozenRowCount || column < mFrozenColumnCount) {
+                                mHeaderDirty = true;
+                            }
+                            invalidateCellContent(row, column);
+                        }
+                    }
+                });
+            }
+        });
     }
 
-    public void removeViewAt(int row, int column) {
-        View v = getChildAt(row, column);
-        if (v != null) {
+    /**
+     * 重绘格子所在的单元格，格子在合并区域内时重绘整个合并区域
+     */
+    private void invalidateCellContent(int row, int column) {
+        SpanIndex.Span span = spanIndex.find(row, column);
+        if (span != null) {
+            getCellRect(span.row, span.col, span.rowSpan, span.colSpan, mDirtyRect);
+        } else {
+            getCellRect(row, column, 1, 1, mDirtyRect);
+        }
+        invalidateTiles(mDirtyRect.left, mDirtyRect.top, mDirtyRect.right, mDirtyRect.bottom);
+        if (span != null) {
+            invalidateCell(span.row, span.col, span.rowSpan, span.colSpan);
+        } else {
+            invalidateCell(row, column, 1, 1);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static StaticLayout createTextLayout(CellText text, int width, Layout.Alignment alignment) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            return StaticLayout.Builder.obtain(text.text, 0, text.text.length(), text.style.getPaint(), width)
+                    .setAlignment(alignment)
+                    .setLineSpacing(0f, 1f)
+                    .setIncludePad(false)
+                    .build();
+        }
+        return new StaticLayout(text.text, text.style.getPaint(), width, alignment, 1f, 0f, false);
+    }
+
+    private void drawCellText(Canvas canvas, CellText text, int gravity, Rect rect) {
+        int padding = text.style.getPadding();
+        int width = rect.width() - padding * 2;
+        int height = rect.height() - padding * 2;
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        Layout.Alignment alignment;
+        switch (Gravity.getAbsoluteGravity(gravity, getLayoutDirection()) & Gravity.HORIZONTAL_GRAVITY_MASK) {
+            case Gravity.CENTER_HORIZONTAL:
+                alignment = Layout.Alignment.ALIGN_CENTER;
+                break;
+            case Gravity.RIGHT:
+                alignment = Layout.Alignment.ALIGN_OPPOSITE;
+                break;
+            default:
+                alignment = Layout.Alignment.ALIGN_NORMAL;
+        }
+        StaticLayout layout = mTextLayoutCache.get(text);
+        if (layout == null || layout.getWidth() != width || layout.getAlignment() != alignment) {
+            layout = createTextLayout(text, width, alignment);
+            mTextLayoutCache.put(text, layout);
+        }
+        int y = rect.top + padding;
+        //文字超出单元格时从顶部开始显示
+        int space = Math.max(height - layout.getHeight(), 0);
+        switch (gravity & Gravity.VERTICAL_GRAVITY_MASK) {
+            case Gravity.CENTER_VERTICAL:
+                y += space / 2;
+                break;
+            case Gravity.BOTTOM:
+                y += space;
+                break;
+        }
+        canvas.save();
+        canvas.clipRect(rect.left + padding, rect.top + padding, rect.right - padding, rect.bottom - padding);
+        canvas.translate(rect.left + padding, y);
+        layout.draw(canvas);
+        canvas.restore();
+    }
+
+    /**
+     * 绘制选中或焦点单元格的背景色
+     */
+    private void drawSelection(Canvas canvas, int firstRow, int lastRow, int firstCol, int lastCol) {
+        if (mMultiSelectMode) {
+            //按区域绘制选中的单元格颜色，区域互不重叠
+            for (int i = 0, n = mSelection.getRangeCount(); i < n; i++) {
+                CellSelection.Range range = mSelection.getRange(i);
+                if (range.intersects(firstRow, firstCol, lastRow - firstRow + 1, lastCol - firstCol + 1)) {
+                    getCellRect(range.row, range.col, range.rowSpan, range.colSpan, mDrawRect);
+                    canvas.drawRect(mDrawRect, mFocusedCellBackgroundPaint);
+                }
+            }
+        } else {
+            //绘制当前焦点的单元格颜色
+            if (mFocusedCell != null && mFocusedCell.getRow() >= 0 && mFocusedCell.getCol() >= 0) {
+                getCellRect(mFocusedCell.getRow(), mFocusedCell.getCol(), mFocusedCell.getRowSpan(), mFocusedCell.getColSpan(), mDrawRect);
+                if (mDrawRect.left < getContentWidth() - mBorderWidth && mDrawRect.top < getContentHeight() - mBorderWidth) {
+                    canvas.drawRect(mDrawRect, mFocusedCellBackgroundPaint);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        if (mZoomSnapshotActive) {
+            return;
+        }
+        int frozenWidth = getFrozenWidth();
+        int frozenHeight = getFrozenHeight();
+        if (frozenWidth == 0 && frozenHeight == 0) {
+            if (mTileCache != null) {
+                //子View已绘制在分块中
+                return;
+            }
+            int saveCount = canvas.save();
+            canvas.scale(mZoom, mZoom);
+            super.dispatchDraw(canvas);
+            canvas.restoreToCount(saveCount);
+            return;
+        }
+        int scrollX = getScrollX();
+        int scrollY = getScrollY();
+        //主体部分，被表头覆盖的区域不绘制
+        if (mTileCache == null) {
+            canvas.save();
+            canvas.clipRect(scrollX + scaled(frozenWidth), scrollY + scaled(frozenHeight), scrollX + getWidth(), scrollY + getHeight());
+            canvas.scale(mZoom, mZoom);
+            super.dispatchDraw(canvas);
+            canvas.restore();
+        }
+
+        checkContentModCounts();
+        if (mHeaderDirty) {
+            mHeaderDirty = false;
+            mCornerHeaderCache.invalidate();
+            mTopHeaderCache.invalidate();
+            mLeftHeaderCache.invalidate();
+        }
+        int contentWidth = getContentWidth();
+        int contentHeight = getContentHeight();
+        //可见区域的内容坐标
+        int left = unscaled(scrollX);
+        int top = unscaled(scrollY);
+        int right = Math.min(unscaled(scrollX + getWidth() - 1) + 1, contentWidth);
+        int bottom = Math.min(unscaled(scrollY + getHeight() - 1) + 1, contentHeight);
+        //顶部表头只随横向滑动
+        mHeaderRect.set(left + frozenWidth, 0, right, frozenHeight);
+        mHeaderStripRect.set(frozenWidth, 0, contentWidth, frozenHeight);
+        drawHeader(canvas, mTopHeaderCache, 0, scrollY);
+        //左侧表头只随纵向滑动
+        mHeaderRect.set(0, top + frozenHeight, frozenWidth, bottom);
+        mHeaderStripRect.set(0, frozenHeight, frozenWidth, contentHeight);
+        drawHeader(canvas, mLeftHeaderCache, scrollX, 0);
+        mHeaderRect.set(0, 0, frozenWidth, frozenHeight);
+        mHeaderStripRect.set(mHeaderRect);
+        drawHeader(canvas, mCornerHeaderCache, scrollX, scrollY);
+    }
+
+    /**
+     * 绘制mHeaderRect区域的表头，缓存不覆盖该区域时先重新绘制缓存
+     *
+     * @param dx 缩放后的内容到画布坐标的偏移，抵消该方向的滑动
+     */
+    private void drawHeader(Canvas canvas, HeaderCache cache, int dx, int dy) {
+        Rect area = mHeaderRect;
+        if (area.isEmpty()) {
+            return;
+        }
+        if (!cache.covers(area)) {
+            //沿滑动方向各多缓存一屏，小范围滑动时不需要重新绘制
+            int left = Math.max(mHeaderStripRect.left, area.left - area.width());
+            int top = Math.max(mHeaderStripRect.top, area.top - area.height());
+            int right = Math.min(mHeaderStripRect.right, area.right + area.width());
+            int bottom = Math.min(mHeaderStripRect.bottom, area.bottom + area.height());
+            mHeaderStripRect.set(left, top, right, bottom);
+            renderHeader(cache.beginRender(mHeaderStripRect, mZoom, mHeaderBackgroundColor), mHeaderStripRect);
+            cache.endRender();
+        }
+        canvas.save();
+        canvas.translate(dx, dy);
+        canvas.scale(mZoom, mZoom);
+        canvas.clipRect(area);
+        cache.draw(canvas, area);
+        //选中状态变化频繁，不放入缓存
+        drawSelection(canvas,
+                Math.max(0, mRowAxis.indexAt(area.top)), mRowAxis.indexAt(area.bottom - 1),
+                Math.max(0, mColumnAxis.indexAt(area.left)), mColumnAxis.indexAt(area.right - 1));
+        canvas.restore();
+    }
+
+    /**
+     * 把表头区域的边框和单元格绘制到缓存
+     */
+    private void renderHeader(Canvas canvas, Rect area) {
+        renderContent(canvas, area, mHeaderBorderGeometry);
+    }
+
+    /**
+     * 绘制内容区域的边框、文本/图片单元格和子View，不包括选中状态。
+     * 子View按布局位置绘制，不包含动画变换
+     */
+    private void renderContent(Canvas canvas, Rect area, BorderGeometry geometry) {
+        int firstRow = Math.max(0, mRowAxis.indexAt(area.top));
+        int lastRow = mRowAxis.indexAt(area.bottom - 1);
+        int firstCol = Math.max(0, mColumnAxis.indexAt(area.left));
+        int lastCol = mColumnAxis.indexAt(area.right - 1);
+        geometry.update(spanIndex, mRowAxis, mColumnAxis, firstRow, lastRow, firstCol, lastCol);
+        canvas.drawLines(geometry.getLines(), 0, geometry.getLineLength(), mBorderPaint);
+        float offset = mBorderWidth / 2f;
+        canvas.drawRect(offset, offset, getContentWidth() - offset, getContentHeight() - offset, mBorderPaint);
+        drawCellContents(canvas, firstRow, lastRow, firstCol, lastCol);
+        for (int i = 0, n = getChildCount(); i < n; i++) {
+            View child = getChildAt(i);
+            if (child.getVisibility() != VISIBLE
+                    || child.getRight() <= area.left || child.getLeft() >= area.right
+                    || child.getBottom() <= area.top || child.getTop() >= area.bottom) {
+                continue;
+            }
+            canvas.save();
+            canvas.translate(child.getLeft(), child.getTop());
+            child.draw(canvas);
+            canvas.restore();
+        }
+    }
+
+    /**
+     * 行列大小或合并单元格变化后，表头和分块缓存都需要重新绘制
+     */
+    private void checkContentModCounts() {
+        if (mContentRowModCount != mRowAxis.getModCount()
+                || mContentColumnModCount != mColumnAxis.getModCount()
+                || mContentSpanModCount != spanIndex.getModCount()) {
+            mContentRowModCount = mRowAxis.getModCount();
+            mContentColumnModCount = mColumnAxis.getModCount();
+            mContentSpanModCount = spanIndex.getModCount();
+            invalidateContentCaches();
+        }
+    }
+
+    /**
+     * 影响所有单元格的外观变化，表头和分块缓存都需要重新绘制
+     */
+    private void invalidateContentCaches() {
+        mHeaderDirty = true;
+        if (mTileCache != null) {
+            mTileCache.invalidateAll();
+        }
+    }
+
+    /**
+     * 与内容区域相交的分块需要重新绘制，绘制分块期间子View的重绘请求被忽略
+     *
+     * @return 是否有分块缓存需要重新绘制
+     */
+    private boolean invalidateTiles(int left, int top, int right, int bottom) {
+        if (mTileCache == null || mTileCache.isRendering()) {
+            return false;
+        }
+        mTileArea.set(left, top, right, bottom);
+        mTileCache.invalidate(mTileArea);
+        return true;
+    }
+
+    /**
+     * 开始导出，导出期间图片在当前线程同步解码
+     */
+    void beginExport() {
+        mExporting = true;
+    }
+
+    /**
+     * 结束导出，恢复可见区域的适配器View
+     */
+    void endExport() {
+        mExporting = false;
+        if (mAdapter != null) {
+            updateVisibleRange();
+            populateAdapterViews();
+        }
+        invalidate();
+    }
+
+    /**
+     * 把内容区域绘制到使用内容坐标的画布上，使用适配器时先为该区域创建View
+     */
+    void exportArea(Canvas canvas, Rect area) {
+        if (area.isEmpty()) {
+            return;
+        }
+        if (mAdapter != null) {
+            mFirstVisibleRow = Math.max(0, mRowAxis.indexAt(area.top));
+            mLastVisibleRow = mRowAxis.indexAt(area.bottom - 1);
+            mFirstVisibleColumn = Math.max(0, mColumnAxis.indexAt(area.left));
+            mLastVisibleColumn = mColumnAxis.indexAt(area.right - 1);
+            populateAdapterViews();
+        }
+        canvas.save();
+        canvas.clipRect(area);
+        renderContent(canvas, area, mExportBorderGeometry);
+        canvas.restore();
+    }
+
+    TableAxis getRowAxis() {
+        return mRowAxis;
+    }
+
+    /**
+     * 未缩放的内容大小
+     */
+    int getExportWidth() {
+        return getContentWidth();
+    }
+
+    int getExportHeight() {
+        return getContentHeight();
+    }
+
+    /**
+     * 表头中的单元格内容变化时重新绘制缓存，并重绘整个表格(表头和缩放后的单元格不在内容坐标对应的位置)
+     */
+    @Override
+    public ViewParent invalidateChildInParent(int[] location, Rect dirty) {
+        boolean header = isHeaderArea(location[0] + dirty.left, location[1] + dirty.top);
+        if (header) {
+            mHeaderDirty = true;
+        }
+        invalidateTiles(location[0] + dirty.left, location[1] + dirty.top, location[0] + dirty.right, location[1] + dirty.bottom);
+        if (header || mZoom != 1f) {
+            dirty.set(getScrollX() - location[0], getScrollY() - location[1],
+                    getScrollX() - location[0] + getWidth(), getScrollY() - location[1] + getHeight());
+        }
+        return super.invalidateChildInParent(location, dirty);
+    }
+
+    @Override
+    public void onDescendantInvalidated(@NonNull View child, @NonNull View target) {
+        if (isHeaderArea(child.getLeft(), child.getTop())) {
+            mHeaderDirty = true;
+        }
+        super.onDescendantInvalidated(child, target);
+        if (invalidateTiles(child.getLeft(), child.getTop(), child.getRight(), child.getBottom())) {
+            //子View不再单独绘制，需要重新记录表格的绘制内容
+            invalidate();
+        }
+    }
+
+    /**
+     * 内容坐标是否在固定表头内
+     */
+    private boolean isHeaderArea(int x, int y) {
+        return x < getFrozenWidth() || y < getFrozenHeight();
+    }
+
+    private int getFrozenWidth() {
+        int count = Math.min(mFrozenColumnCount, mColumnCount);
+        return count <= 0 ? 0 : mColumnAxis.startOf(count);
+    }
+
+    private int getFrozenHeight() {
+        int count = Math.min(mFrozenRowCount, mRowCount);
+        return count <= 0 ? 0 : mRowAxis.startOf(count);
+    }
+
+    public void addView(@NonNull View child, @NonNull TableCell cell) {
+        LayoutParams lp = generateLayoutParams(cell);
+        addView(child, -1, lp);
+    }
+
+    @Override
+    public void addView(@NonNull View child, int index, @Nullable ViewGroup.LayoutParams params) {
+        LayoutParams lp = (LayoutParams) params;
+        if (!checkLayoutParams(params)) {
+            lp = (LayoutParams) generateDefaultLayoutParams();
+        }
+        TableCell cell = cellData.get(lp.row, lp.column);
+        if (cell != null) {
+            View v = cell.getView();
+            if (v != null && v != child) {
+                removeView(v);
+                cell.setView(child);
+            }
+        }
+        super.addView(child, index, params);
+    }
+
+    public void removeViewAt(@Nullable TableCell cell) {
+        if (cell != null) {
+            View v = cell.getView();
+            if (v != null) {
+                removeView(v);
+            }
+        }
+    }
+
+    public void removeViewAt(int row, int column) {
+        View v = getChildAt(row, column);
+        if (v != null) {
             removeView(v);
         }
     }
@@ -502,25 +1475,33 @@ public class TableLayout extends ViewGroup {
     public void onViewAdded(View child) {
         super.onViewAdded(child);
         LayoutParams lp = (LayoutParams) child.getLayoutParams();
-        String key = genCellMapKey(lp.row, lp.column);
-        TableCell cell = new TableCell(lp.row, lp.column);
+        TableCell cell = cellData.get(lp.row, lp.column);
+        if (cell == null) {
+            cell = new TableCell(lp.row, lp.column);
+        }
         cell.setGravity(lp.gravity);
         cell.setRowSpan(lp.rowSpan);
         cell.setColSpan(lp.columnSpan);
         cell.setView(child);
-        cellData.put(key, cell);
+        putCellData(cell);
     }
 
     @Override
     public void onViewRemoved(View child) {
         super.onViewRemoved(child);
         LayoutParams lp = (LayoutParams) child.getLayoutParams();
-        String key = genCellMapKey(lp.row, lp.column);
-        TableCell cell = cellData.get(key);
+        if (lp.row < mFrozenRowCount || lp.column < mFrozenColumnCount) {
+            mHeaderDirty = true;
+        }
+        if (lp.viewType == TableAdapter.VIEW_TYPE_NONE) {
+            //回收的适配器View在分块中的内容仍然有效
+            invalidateTiles(child.getLeft(), child.getTop(), child.getRight(), child.getBottom());
+        }
+        TableCell cell = cellData.get(lp.row, lp.column);
         if (cell != null) {
             cell.setView(null);
             if (isDefaultCellLayoutParam(cell)) {
-                cellData.remove(key);
+                removeCellData(lp.row, lp.column);
             }
         }
     }
@@ -531,46 +1512,1120 @@ public class TableLayout extends ViewGroup {
         if (row < 0 || column < 0) {
             return null;
         }
-        TableCell cell = cellData.get(genCellMapKey(row, column));
+        TableCell cell = cellData.get(row, column);
         if (cell != null) {
             return cell.getView();
         }
         return null;
     }
 
+    /**
+     * 查找包含该格子的单元格，格子在合并区域内时返回合并区域左上角的单元格
+     *
+     * @return 该格子没有记录任何布局属性时返回null
+     */
     @Nullable
-    public View getChildAt(@NonNull TableCell cell) {
-        return getChildAt(cell.getRow(), cell.getCol());
+    public TableCell findCell(int row, int column) {
+        SpanIndex.Span span = spanIndex.find(row, column);
+        if (span != null) {
+            return cellData.get(span.row, span.col);
+        }
+        return cellData.get(row, column);
+    }
+
+    /**
+     * 计算坐标所在的单元格，不分配内存
+     *
+     * @return 所在单元格(合并单元格为左上角)的行列，使用{@link CellIndex#unpackRow(long)}和{@link CellIndex#unpackCol(long)}解析
+     */
+    private long hitTestCell(float x, float y) {
+        return TableGeometry.hitTest(mRowAxis, mColumnAxis, spanIndex, (int) x, (int) y);
+    }
+
+    /**
+     * 计算单元格内容区域(不含边框)的坐标
+     */
+    private void getCellRect(int row, int column, int rowSpan, int columnSpan, Rect out) {
+        out.left = mColumnAxis.startOf(column);
+        out.top = mRowAxis.startOf(row);
+        out.right = out.left + mColumnAxis.spanSize(column, columnSpan);
+        out.bottom = out.top + mRowAxis.spanSize(row, rowSpan);
+    }
+
+    /**
+     * 只重绘单元格所在的区域。
+     * 脏区域只在软件绘制时生效(onDraw按画布裁剪区域只绘制相交的行列)，硬件加速时整个View重新记录绘制内容
+     */
+    private void invalidateCell(@Nullable TableCell cell) {
+        if (cell != null) {
+            invalidateCell(cell.getRow(), cell.getCol(), cell.getRowSpan(), cell.getColSpan());
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private void invalidateCell(int row, int column, int rowSpan, int columnSpan) {
+        if (mBatchDepth > 0) {
+            mBatchInvalidated = true;
+            return;
+        }
+        boolean frozenRow = row < mFrozenRowCount;
+        boolean frozenColumn = column < mFrozenColumnCount;
+        if (frozenRow && row + rowSpan > mFrozenRowCount || frozenColumn && column + columnSpan > mFrozenColumnCount) {
+            //跨越表头边界的合并单元格一部分随滑动移动，一部分固定
+            invalidate();
+            return;
+        }
+        getCellRect(row, column, rowSpan, columnSpan, mDirtyRect);
+        if (!mDirtyRect.isEmpty()) {
+            //invalidate(l,t,r,b)接收的是缩放后的内容坐标，会自行减去滑动偏移；表头固定在窗口中，需要加上滑动偏移
+            int dx = frozenColumn ? getScrollX() : 0;
+            int dy = frozenRow ? getScrollY() : 0;
+            invalidate(dx + (int) Math.floor(mDirtyRect.left * mZoom), dy + (int) Math.floor(mDirtyRect.top * mZoom),
+                    dx + (int) Math.ceil(mDirtyRect.right * mZoom), dy + (int) Math.ceil(mDirtyRect.bottom * mZoom));
+        }
+    }
+
+    private void startDragSelection(float x, float y) {
+        long key = hitTestCell(toContentX(x), toContentY(y));
+        mDragAnchorRow = CellIndex.unpackRow(key);
+        mDragAnchorColumn = CellIndex.unpackCol(key);
+        mDragBaseSelection.set(mSelection);
+        mDragRange = null;
+        mDragSelecting = true;
+        mDragSelected = true;
+        if (getParent() != null) {
+            getParent().requestDisallowInterceptTouchEvent(true);
+        }
+    }
+
+    private void stopDragSelection() {
+        if (mDragSelecting) {
+            mDragSelecting = false;
+            mDragBaseSelection.clear();
+            mDragRange = null;
+        }
+        if (mDragFrameScheduled) {
+            mDragFrameScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(mDragFrameCallback);
+        }
+    }
+
+    private void scheduleDragFrame() {
+        if (!mDragFrameScheduled) {
+            mDragFrameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(mDragFrameCallback);
+        }
+    }
+
+    /**
+     * 每帧执行一次：靠近边缘时自动滚动，再把锚点到触摸点的矩形合并到选区，只重绘变化的部分
+     */
+    private void updateDragSelection() {
+        if (!mDragSelecting) {
+            return;
+        }
+        int dx = autoScrollDelta(mDragX, scaled(getFrozenWidth()), getWidth());
+        int dy = autoScrollDelta(mDragY, scaled(getFrozenHeight()), getHeight());
+        int oldScrollX = getScrollX();
+        int oldScrollY = getScrollY();
+        if (dx != 0 || dy != 0) {
+            scrollBy(dx, dy);
+        }
+        boolean scrolled = getScrollX() != oldScrollX || getScrollY() != oldScrollY;
+        long key = hitTestCell(toContentX(mDragX), toContentY(mDragY));
+        int row = CellIndex.unpackRow(key);
+        int column = CellIndex.unpackCol(key);
+        int top = Math.min(row, mDragAnchorRow);
+        int left = Math.min(column, mDragAnchorColumn);
+        int bottom = Math.max(row, mDragAnchorRow);
+        int right = Math.max(column, mDragAnchorColumn);
+        //两端的格子可能是合并单元格，选区需要完整包含相交的合并区域
+        SpanIndex.Span region = spanIndex.expandToCover(top, left, bottom - top + 1, right - left + 1);
+        CellSelection.Range range = new CellSelection.Range(region.row, region.col, region.rowSpan, region.colSpan);
+        if (!range.equals(mDragRange)) {
+            mSelection.set(mDragBaseSelection);
+            mSelection.add(range.row, range.col, range.rowSpan, range.colSpan);
+            if (!scrolled) {
+                invalidateDragChange(mDragRange, range);
+            }
+            mDragRange = range;
+        }
+        if (scrolled) {
+            //滚动后整个表格都会重绘，继续滚动直到离开边缘
+            scheduleDragFrame();
+        }
+    }
+
+    /**
+     * 只重绘新旧矩形不重叠的部分
+     */
+    private void invalidateDragChange(@Nullable CellSelection.Range oldRange, CellSelection.Range newRange) {
+        List<CellSelection.Range> dirty = mDragDirtyRanges;
+        dirty.clear();
+        if (oldRange == null) {
+            dirty.add(newRange);
+        } else {
+            CellSelection.subtract(oldRange, newRange, dirty);
+            CellSelection.subtract(newRange, oldRange, dirty);
+        }
+        for (int i = 0, n = dirty.size(); i < n; i++) {
+            CellSelection.Range r = dirty.get(i);
+            invalidateCell(r.row, r.col, r.rowSpan, r.colSpan);
+        }
+        dirty.clear();
+    }
+
+    /**
+     * 触摸点进入滑动区域边缘时的滚动距离，越靠近边缘越快
+     *
+     * @param start 滑动区域的起点，即固定表头的大小
+     * @param end   滑动区域的终点
+     */
+    private int autoScrollDelta(float position, int start, int end) {
+        int edge = Math.min(mAutoScrollEdge, (end - start) / 4);
+        if (edge <= 0) {
+            return 0;
+        }
+        int maxStep = Math.max(edge / 2, 1);
+        if (position < start + edge) {
+            return -(int) Math.ceil(maxStep * Math.min(1f, (start + edge - position) / edge));
+        }
+        if (position > end - edge) {
+            return (int) Math.ceil(maxStep * Math.min(1f, (position - end + edge) / edge));
+        }
+        return 0;
+    }
+
+    /**
+     * View坐标转换为内容坐标，固定表头所在的部分不随滑动偏移
+     */
+    private float toContentX(float x) {
+        return (x < scaled(getFrozenWidth()) ? x : x + getScrollX()) / mZoom;
+    }
+
+    private float toContentY(float y) {
+        return (y < scaled(getFrozenHeight()) ? y : y + getScrollY()) / mZoom;
+    }
+
+    /**
+     * 内容坐标缩放后的大小
+     */
+    private int scaled(int size) {
+        return mZoom == 1f ? size : (int) Math.ceil(size * mZoom);
+    }
+
+    /**
+     * 缩放后的坐标对应的内容坐标
+     */
+    private int unscaled(int coordinate) {
+        return mZoom == 1f ? coordinate : (int) (coordinate / mZoom);
+    }
+
+    /**
+     * 保存单元格，同时维护合并区域索引
+     */
+    private void putCellData(TableCell cell) {
+        cellData.put(cell.getRow(), cell.getCol(), cell);
+        putSpan(cell);
+    }
+
+    private void removeCellData(int row, int column) {
+        cellData.remove(row, column);
+        spanIndex.remove(row, column);
+    }
+
+    /**
+     * 更新单元格的合并区域，耗时与合并区域的面积成正比。
+     * 批量编辑期间也直接更新，查找单元格和点击测试始终使用最新的合并区域
+     */
+    private void putSpan(TableCell cell) {
+        spanIndex.put(cell.getRow(), cell.getCol(), cell.getRowSpan(), cell.getColSpan());
+    }
+
+    /**
+     * 开始批量编辑
+     * <p>
+     * 在{@link #endBatch()}之前，添加View、合并单元格、设置对齐方式等操作不会触发布局和重绘，
+     * 结束时只进行一次测量、布局和重绘。合并区域索引随每次修改更新，批量编辑期间的查询也是最新的。
+     * 批量编辑可以嵌套，最外层结束时生效。
+     */
+    public void beginBatch() {
+        mBatchDepth++;
+    }
+
+    /**
+     * 结束批量编辑，必须与{@link #beginBatch()}成对调用
+     */
+    public void endBatch() {
+        if (mBatchDepth <= 0) {
+            throw new IllegalStateException("endBatch() called without beginBatch()");
+        }
+        if (--mBatchDepth > 0) {
+            return;
+        }
+        if (mBatchLayoutRequested) {
+            mBatchLayoutRequested = false;
+            requestLayout();
+        }
+        if (mBatchInvalidated) {
+            mBatchInvalidated = false;
+            invalidate();
+        }
+    }
+
+    /**
+     * 是否处于批量编辑中
+     */
+    public boolean isInBatch() {
+        return mBatchDepth > 0;
+    }
+
+    @Override
+    public void requestLayout() {
+        if (mBatchDepth > 0) {
+            mBatchLayoutRequested = true;
+            return;
+        }
+        super.requestLayout();
+    }
+
+    @Override
+    public void invalidate() {
+        if (mBatchDepth > 0) {
+            mBatchInvalidated = true;
+            return;
+        }
+        super.invalidate();
+    }
+
+    @Nullable
+    public View getChildAt(@NonNull TableCell cell) {
+        return getChildAt(cell.getRow(), cell.getCol());
+    }
+
+    /**
+     * 设置表格的单元格数据
+     * <p>
+     * 与当前数据按行列比较，只删除不再使用的View、添加新的View、更新位置或跨度变化的View，
+     * 未变化的View保持添加状态，也不会重新测量。
+     */
+    public void setTableCellData(Collection<TableCell> cells) {
+        CellIndex<TableCell> target = new CellIndex<>();
+        Set<View> targetViews = Collections.newSetFromMap(new IdentityHashMap<View, Boolean>());
+        if (cells != null) {
+            for (TableCell cell : cells) {
+                target.put(cell.getRow(), cell.getCol(), cell);
+                if (cell.getView() != null) {
+                    targetViews.add(cell.getView());
+                }
+            }
+        }
+        beginBatch();
+        try {
+            //删除不再使用的View
+            for (int i = getChildCount() - 1; i >= 0; i--) {
+                View child = getChildAt(i);
+                if (targetViews.contains(child)) {
+                    continue;
+                }
+                if (((LayoutParams) child.getLayoutParams()).viewType != TableAdapter.VIEW_TYPE_NONE) {
+                    //适配器创建的View回收后在布局时重新绑定
+                    recycleAdapterView(child);
+                    requestLayout();
+                } else {
+                    removeViewAt(i);
+                }
+            }
+            //删除不再存在的单元格
+            for (int i = 0, n = cellData.capacity(); i < n; i++) {
+                TableCell cell = cellData.valueAt(i);
+                if (cell != null && target.get(cell.getRow(), cell.getCol()) == null) {
+                    removeCellData(cell.getRow(), cell.getCol());
+                }
+            }
+            //更新单元格，已添加的View只在位置、跨度、对齐方式变化时更新布局属性
+            for (int i = 0, n = target.capacity(); i < n; i++) {
+                TableCell cell = target.valueAt(i);
+                if (cell == null) {
+                    continue;
+                }
+                View child = cell.getView();
+                if (child != null && child.getParent() == this) {
+                    LayoutParams lp = (LayoutParams) child.getLayoutParams();
+                    if (lp.row != cell.getRow() || lp.column != cell.getCol()
+                            || lp.rowSpan != cell.getRowSpan() || lp.columnSpan != cell.getColSpan()
+                            || lp.gravity != cell.getGravity()) {
+                        lp.row = cell.getRow();
+                        lp.column = cell.getCol();
+                        lp.rowSpan = cell.getRowSpan();
+                        lp.columnSpan = cell.getColSpan();
+                        lp.gravity = cell.getGravity();
+                        requestLayout();
+                    }
+                }
+                TableCell old = cellData.get(cell.getRow(), cell.getCol());
+                if (old != cell) {
+                    if (isDefaultCellLayoutParam(cell)) {
+                        removeCellData(cell.getRow(), cell.getCol());
+                    } else {
+                        putCellData(cell);
+                    }
+                    invalidate();
+                } else {
+                    //同一个对象的跨度可能已在外部修改
+                    SpanIndex.Span span = spanIndex.get(cell.getRow(), cell.getCol());
+                    int rowSpan = span == null ? 1 : span.rowSpan;
+                    int colSpan = span == null ? 1 : span.colSpan;
+                    if (rowSpan != cell.getRowSpan() || colSpan != cell.getColSpan()) {
+                        putSpan(cell);
+                        invalidate();
+                    }
+                }
+            }
+            //添加新的View
+            for (int i = 0, n = target.capacity(); i < n; i++) {
+                TableCell cell = target.valueAt(i);
+                if (cell != null && cell.getView() != null && cell.getView().getParent() != this) {
+                    addView(cell.getView(), cell);
+                }
+            }
+        } finally {
+            endBatch();
+        }
+    }
+
+    /**
+     * 获取表格模板：行列数、边框、行高列宽、合并单元格和对齐方式，单元格按行列排序
+     */
+    @NonNull
+    public TableModel getTableModel() {
+        TableModel model = new TableModel();
+        model.setRowCount(mRowCount);
+        model.setColumnCount(mColumnCount);
+        model.setBorderWidth(mBorderWidth);
+        model.setRowHeight(mFixedRowHeight);
+        model.setColumnWidth(mFixedColumnWidth);
+        model.setRowHeights(getConfiguredSizes(mRowAxis, mRowCount));
+        model.setColumnWidths(getConfiguredSizes(mColumnAxis, mColumnCount));
+        List<TableModel.Cell> cells = model.getCells();
+        for (int i = 0, n = cellData.capacity(); i < n; i++) {
+            TableCell cell = cellData.valueAt(i);
+            if (cell != null && (cell.getRowSpan() != 1 || cell.getColSpan() != 1 || cell.getGravity() != Gravity.CENTER)) {
+                cells.add(new TableModel.Cell(cell.getRow(), cell.getCol(), cell.getRowSpan(), cell.getColSpan(), cell.getGravity()));
+            }
+        }
+        Collections.sort(cells, new Comparator<TableModel.Cell>() {
+            @Override
+            public int compare(TableModel.Cell a, TableModel.Cell b) {
+                int result = compareInt(a.getRow(), b.getRow());
+                return result != 0 ? result : compareInt(a.getCol(), b.getCol());
+            }
+
+            private int compareInt(int x, int y) {
+                return x < y ? -1 : (x == y ? 0 : 1);
+            }
+        });
+        return model;
+    }
+
+    private static int[] getConfiguredSizes(TableAxis axis, int count) {
+        int[] sizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            sizes[i] = axis.getConfiguredSize(i);
+        }
+        return sizes;
+    }
+
+    /**
+     * 应用表格模板，已添加的View保留，其跨度和对齐方式按模板重新设置
+     */
+    public void setTableModel(@NonNull TableModel model) {
+        beginBatch();
+        try {
+            setRowCount(model.getRowCount());
+            setColumnCount(model.getColumnCount());
+            setBorderWidth(model.getBorderWidth());
+            setRowHeight(model.getRowHeight());
+            setColumnWidth(model.getColumnWidth());
+            mRowAxis.clearSizes();
+            mColumnAxis.clearSizes();
+            int[] rowHeights = model.getRowHeights();
+            for (int i = 0; i < rowHeights.length; i++) {
+                mRowAxis.setSize(i, rowHeights[i]);
+            }
+            int[] columnWidths = model.getColumnWidths();
+            for (int i = 0; i < columnWidths.length; i++) {
+                mColumnAxis.setSize(i, columnWidths[i]);
+            }
+            requestLayout();
+            CellIndex<TableCell> target = new CellIndex<>();
+            for (int i = 0, n = cellData.capacity(); i < n; i++) {
+                TableCell cell = cellData.valueAt(i);
+                if (cell != null && cell.getView() != null) {
+                    TableCell copy = new TableCell(cell.getRow(), cell.getCol());
+                    copy.setView(cell.getView());
+                    target.put(copy.getRow(), copy.getCol(), copy);
+                }
+            }
+            for (TableModel.Cell cell : model.getCells()) {
+                TableCell copy = target.get(cell.getRow(), cell.getCol());
+                if (copy == null) {
+                    copy = new TableCell(cell.getRow(), cell.getCol());
+                    target.put(copy.getRow(), copy.getCol(), copy);
+                }
+                copy.setRowSpan(cell.getRowSpan());
+                copy.setColSpan(cell.getColSpan());
+                copy.setGravity(cell.getGravity());
+            }
+            mFocusedCell = null;
+            setTableCellData(target.values(new ArrayList<TableCell>(target.size())));
+        } finally {
+            endBatch();
+        }
+    }
+
+    /**
+     * 用快照替换表格结构(行列数、行高列宽、合并单元格、对齐方式)，只触发一次布局
+     * <p>
+     * 快照的校验和索引计算已在构建时完成，这里只复制索引并替换。
+     * 已添加的View保留在原来的行列，被合并区域覆盖的View隐藏；适配器创建的View会重新绑定。
+     * 焦点和选区会被清除。
+     */
+    @MainThread
+    public void applySnapshot(@NonNull TableSnapshot snapshot) {
+        beginBatch();
+        try {
+            if (mAdapter != null) {
+                recycleAdapterViews();
+            }
+            setRowCount(snapshot.getRowCount());
+            setColumnCount(snapshot.getColumnCount());
+            setRowHeight(snapshot.getRowHeight());
+            setColumnWidth(snapshot.getColumnWidth());
+            mRowAxis.clearSizes();
+            for (int i = 0; i < mRowCount; i++) {
+                mRowAxis.setSize(i, snapshot.getRowHeight(i));
+            }
+            mColumnAxis.clearSizes();
+            for (int i = 0; i < mColumnCount; i++) {
+                mColumnAxis.setSize(i, snapshot.getColumnWidth(i));
+            }
+            SpanIndex oldSpans = spanIndex;
+            CellIndex<TableCell> cells = snapshot.copyCells();
+            SpanIndex spans = snapshot.copySpans();
+            for (int i = 0, n = getChildCount(); i < n; i++) {
+                View child = getChildAt(i);
+                LayoutParams lp = (LayoutParams) child.getLayoutParams();
+                TableCell cell = cells.get(lp.row, lp.column);
+                if (cell == null) {
+                    cell = new TableCell(lp.row, lp.column);
+                    cells.put(lp.row, lp.column, cell);
+                }
+                cell.setView(child);
+                lp.rowSpan = cell.getRowSpan();
+                lp.columnSpan = cell.getColSpan();
+                lp.gravity = cell.getGravity();
+                SpanIndex.Span span = spans.find(lp.row, lp.column);
+                if (span != null && (span.row != lp.row || span.col != lp.column)) {
+                    child.setVisibility(GONE);
+                } else if (child.getVisibility() == GONE && oldSpans.find(lp.row, lp.column) != null) {
+                    //之前被合并隐藏的View恢复显示
+                    child.setVisibility(VISIBLE);
+                }
+            }
+            cellData = cells;
+            spanIndex = spans;
+            mFocusedCell = null;
+            //旧的选区可能超出新的行列数或只覆盖新合并区域的一部分
+            stopDragSelection();
+            mSelection.clear();
+            mBorderGeometry.invalidate();
+            invalidateContentCaches();
+            requestLayout();
+            invalidate();
+        } finally {
+            endBatch();
+        }
+    }
+
+    /**
+     * 逐帧追加行，每帧只使用{@link #setAppendFrameBudget(long)}指定的时间，第一行在下一帧即可显示
+     * <p>
+     * 每个元素为一行的单元格，行数不足时自动增加。迭代器在主线程读取，单元格可以包含View。
+     */
+    public void appendRows(@NonNull Iterator<? extends Collection<TableCell>> rows) {
+        appendRows(new TableRowStream(rows));
+    }
+
+    /**
+     * 逐帧追加后台线程提交的行，数据流关闭且全部添加后结束
+     */
+    public void appendRows(@NonNull TableRowStream stream) {
+        mAppendStreams.addLast(stream);
+        stream.setListener(mAppendNotifier);
+        scheduleAppend();
+    }
+
+    /**
+     * 取消所有尚未添加的行
+     */
+    public void cancelAppend() {
+        for (TableRowStream stream : mAppendStreams) {
+            stream.setListener(null);
+        }
+        mAppendStreams.clear();
+        if (mAppendScheduled) {
+            mAppendScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(mAppendFrameCallback);
+        }
+    }
+
+    /**
+     * 是否还有等待追加的行
+     */
+    public boolean isAppending() {
+        return !mAppendStreams.isEmpty();
+    }
+
+    /**
+     * 设置每帧用于追加行的时间，默认8ms
+     */
+    public void setAppendFrameBudget(long nanos) {
+        mAppendFrameBudgetNanos = Math.max(nanos, 0);
+    }
+
+    private void scheduleAppend() {
+        if (mAppendScheduled || mAppendStreams.isEmpty() || !isAttachedToWindow()) {
+            return;
+        }
+        mAppendScheduled = true;
+        Choreographer.getInstance().postFrameCallback(mAppendFrameCallback);
+    }
+
+    /**
+     * 在时间预算内追加行，至少追加一行，所有修改只触发一次布局
+     */
+    private void appendPendingRows() {
+        long deadline = System.nanoTime() + mAppendFrameBudgetNanos;
+        beginBatch();
+        try {
+            while (!mAppendStreams.isEmpty()) {
+                TableRowStream stream = mAppendStreams.peekFirst();
+                Collection<TableCell> row = stream.poll();
+                if (row == null) {
+                    if (!stream.isFinished()) {
+                        //等待后台线程提交数据
+                        break;
+                    }
+                    stream.setListener(null);
+                    mAppendStreams.pollFirst();
+                    continue;
+                }
+                appendRow(row);
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+            }
+        } finally {
+            endBatch();
+        }
+        TableRowStream stream = mAppendStreams.peekFirst();
+        if (stream != null && (stream.hasPending() || stream.isFinished())) {
+            scheduleAppend();
+        }
+    }
+
+    private void appendRow(Collection<TableCell> row) {
+        for (TableCell cell : row) {
+            if (cell.getRow() + cell.getRowSpan() > mRowCount) {
+                setRowCount(cell.getRow() + cell.getRowSpan());
+            }
+            if (cell.getView() != null) {
+                addView(cell.getView(), cell);
+            } else if (!isDefaultCellLayoutParam(cell)) {
+                putCellData(cell);
+            }
+        }
+    }
+
+    /**
+     * 设置内容适配器
+     * <p>
+     * 设置后表格只为可见区域内的单元格创建View，滑出可见区域的View会被回收复用，
+     * 通过{@link #addView(View, TableCell)}直接添加的View不受影响。
+     */
+    public void setAdapter(@Nullable TableAdapter adapter) {
+        if (mAdapter == adapter) {
+            return;
+        }
+        if (mAdapter != null) {
+            mAdapter.unregisterDataSetObserver(mAdapterObserver);
+            recycleAdapterViews();
+        }
+        mScrapViews.clear();
+        mAdapter = adapter;
+        if (adapter != null) {
+            adapter.registerDataSetObserver(mAdapterObserver);
+        }
+        invalidateContentCaches();
+        requestLayout();
+    }
+
+    @Nullable
+    public TableAdapter getAdapter() {
+        return mAdapter;
+    }
+
+    /**
+     * 设置某类型View的最大回收缓存数量
+     */
+    public void setMaxRecycledViews(int viewType, int max) {
+        mScrapViews.setMaxScrap(viewType, max);
+    }
+
+    /**
+     * 根据当前可见区域更新可见的行列区间
+     *
+     * @return 区间是否发生变化
+     */
+    private boolean updateVisibleRange() {
+        int firstRow = 0;
+        int lastRow = -1;
+        int firstColumn = 0;
+        int lastColumn = -1;
+        if (getLocalVisibleRect(mVisibleRect)) {
+            mVisibleRect.offset(getScrollX(), getScrollY());
+            firstColumn = Math.max(0, mColumnAxis.indexAt(unscaled(mVisibleRect.left)));
+            lastColumn = mColumnAxis.indexAt(unscaled(mVisibleRect.right - 1));
+            firstRow = Math.max(0, mRowAxis.indexAt(unscaled(mVisibleRect.top)));
+            lastRow = mRowAxis.indexAt(unscaled(mVisibleRect.bottom - 1));
+        }
+        boolean changed = firstRow != mFirstVisibleRow || lastRow != mLastVisibleRow
+                || firstColumn != mFirstVisibleColumn || lastColumn != mLastVisibleColumn;
+        mFirstVisibleRow = firstRow;
+        mLastVisibleRow = lastRow;
+        mFirstVisibleColumn = firstColumn;
+        mLastVisibleColumn = lastColumn;
+        return changed;
+    }
+
+    /**
+     * 单元格是否可见，固定表头中的单元格总是可见
+     */
+    private boolean isCellVisible(int row, int column, int rowSpan, int columnSpan) {
+        return (row < mFrozenRowCount || row <= mLastVisibleRow && row + rowSpan > mFirstVisibleRow)
+                && (column < mFrozenColumnCount || column <= mLastVisibleColumn && column + columnSpan > mFirstVisibleColumn);
+    }
+
+    /**
+     * 需要创建View的第一个格子，跳过固定表头和可见区域之间的部分
+     */
+    private static int firstPopulatedIndex(int start, int frozenCount, int firstVisible) {
+        return start < frozenCount || start >= firstVisible ? start : firstVisible;
+    }
+
+    /**
+     * 回收不可见的适配器View，并为可见的单元格创建/绑定View
+     */
+    private void populateAdapterViews() {
+        if (mAdapter == null) {
+            return;
+        }
+        //回收离开可见区域或被合并的View
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            LayoutParams lp = (LayoutParams) child.getLayoutParams();
+            if (lp.viewType == TableAdapter.VIEW_TYPE_NONE) {
+                continue;
+            }
+            SpanIndex.Span span = spanIndex.find(lp.row, lp.column);
+            boolean covered = span != null && (span.row != lp.row || span.col != lp.column);
+            if (covered || !isCellVisible(lp.row, lp.column, lp.rowSpan, lp.columnSpan)) {
+                recycleAdapterView(child);
+            }
+        }
+        //为可见的单元格和固定表头创建View
+        for (int r = firstPopulatedIndex(0, mFrozenRowCount, mFirstVisibleRow); r <= mLastVisibleRow;
+             r = firstPopulatedIndex(r + 1, mFrozenRowCount, mFirstVisibleRow)) {
+            for (int c = firstPopulatedIndex(0, mFrozenColumnCount, mFirstVisibleColumn); c <= mLastVisibleColumn;
+                 c = firstPopulatedIndex(c + 1, mFrozenColumnCount, mFirstVisibleColumn)) {
+                SpanIndex.Span span = spanIndex.find(r, c);
+                if (span == null) {
+                    obtainAdapterView(r, c);
+                } else if (r == firstPopulatedIndex(span.row, mFrozenRowCount, mFirstVisibleRow)
+                        && c == firstPopulatedIndex(span.col, mFrozenColumnCount, mFirstVisibleColumn)) {
+                    //合并单元格只在第一个可见的格子处理
+                    obtainAdapterView(span.row, span.col);
+                }
+            }
+        }
+    }
+
+    private void obtainAdapterView(int row, int column) {
+        TableCell cell = cellData.get(row, column);
+        if (cell != null && cell.getView() != null) {
+            return;
+        }
+        int viewType = mAdapter.getItemViewType(row, column);
+        if (viewType == TableAdapter.VIEW_TYPE_NONE) {
+            return;
+        }
+        View view = mScrapViews.get(viewType);
+        if (view == null) {
+            view = mAdapter.onCreateView(this, viewType);
+        }
+        if (cell == null) {
+            cell = new TableCell(row, column);
+            putCellData(cell);
+        }
+        LayoutParams lp = generateLayoutParams(cell);
+        ViewGroup.LayoutParams viewLp = view.getLayoutParams();
+        if (viewLp != null) {
+            lp.width = viewLp.width;
+            lp.height = viewLp.height;
+        }
+        lp.viewType = viewType;
+        view.setVisibility(VISIBLE);
+        mAdapter.onBindView(view, cell);
+        addViewInLayout(view, -1, lp, true);
+        if (view.getVisibility() != GONE) {
+            measureCellChild(view);
+            layoutCellChild(view);
+        }
+    }
+
+    private void recycleAdapterView(View child) {
+        LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        removeViewInLayout(child);
+        if (mAdapter != null) {
+            mAdapter.onViewRecycled(child);
+        }
+        mScrapViews.put(lp.viewType, child);
+    }
+
+    /**
+     * 回收所有适配器创建的View
+     */
+    private void recycleAdapterViews() {
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            if (((LayoutParams) child.getLayoutParams()).viewType != TableAdapter.VIEW_TYPE_NONE) {
+                recycleAdapterView(child);
+            }
+        }
+    }
+
+    /**
+     * 设置固定列宽，表格宽度超出父容器时可以水平滑动
+     *
+     * @param columnWidth 列宽(px)，小于等于0时所有列平分表格宽度
+     */
+    public void setColumnWidth(int columnWidth) {
+        columnWidth = Math.max(columnWidth, 0);
+        if (mFixedColumnWidth != columnWidth) {
+            mFixedColumnWidth = columnWidth;
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    /**
+     * 获取固定列宽
+     *
+     * @return 列宽(px)，0表示所有列平分表格宽度
+     */
+    public int getColumnWidth() {
+        return mFixedColumnWidth;
+    }
+
+    /**
+     * 设置固定行高，表格高度超出父容器时可以垂直滑动
+     *
+     * @param rowHeight 行高(px)，小于等于0时所有行平分表格高度
+     */
+    public void setRowHeight(int rowHeight) {
+        rowHeight = Math.max(rowHeight, 0);
+        if (mFixedRowHeight != rowHeight) {
+            mFixedRowHeight = rowHeight;
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    /**
+     * 获取固定行高
+     *
+     * @return 行高(px)，0表示所有行平分表格高度
+     */
+    public int getRowHeight() {
+        return mFixedRowHeight;
+    }
+
+    /**
+     * 表格内容宽度，未设置固定列宽时等于View宽度
+     */
+    private int getContentWidth() {
+        if (!isColumnContentSized() || mColumnCount == 0) {
+            return getWidth();
+        }
+        return mColumnAxis.getTotalSize();
+    }
+
+    /**
+     * 表格内容高度，未设置固定行高时等于View高度
+     */
+    private int getContentHeight() {
+        if (!isRowContentSized() || mRowCount == 0) {
+            return getHeight();
+        }
+        return mRowAxis.getTotalSize();
+    }
+
+    /**
+     * 表格宽度是否由列宽决定，否则所有列平分表格宽度
+     */
+    private boolean isColumnContentSized() {
+        return mFixedColumnWidth > 0 || (mAutoSizeMode & AUTO_SIZE_COLUMNS) != 0;
+    }
+
+    /**
+     * 表格高度是否由行高决定，否则所有行平分表格高度
+     */
+    private boolean isRowContentSized() {
+        return mFixedRowHeight > 0 || (mAutoSizeMode & AUTO_SIZE_ROWS) != 0;
+    }
+
+    /**
+     * 设置根据内容调整行高列宽的方式
+     * <p>
+     * 列宽(行高)取该列(行)中不跨列(行)的单元格内容的最大尺寸，没有内容的列(行)使用固定列宽(行高)，
+     * 未设置固定尺寸时平分剩余空间。单独设置了尺寸的列(行)不受影响。
+     * 每个单元格的测量结果会被缓存，只有约束、跨度或内容变化时才重新测量。
+     *
+     * @param mode {@link #AUTO_SIZE_NONE}, {@link #AUTO_SIZE_COLUMNS}, {@link #AUTO_SIZE_ROWS}, {@link #AUTO_SIZE_ALL}
+     */
+    public void setAutoSizeMode(int mode) {
+        mode &= AUTO_SIZE_ALL;
+        if (mAutoSizeMode != mode) {
+            mAutoSizeMode = mode;
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    public int getAutoSizeMode() {
+        return mAutoSizeMode;
+    }
+
+    /**
+     * 单独设置某一列的宽度
+     *
+     * @param column 列
+     * @param width  列宽(px)，小于0时恢复为默认列宽
+     */
+    public void setColumnWidth(int column, int width) {
+        if (mColumnAxis.getConfiguredSize(column) != Math.max(width, -1)) {
+            mColumnAxis.setSize(column, width);
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    /**
+     * 获取某一列的实际宽度
+     */
+    public int getColumnWidth(int column) {
+        return mColumnAxis.sizeOf(column);
+    }
+
+    /**
+     * 单独设置某一行的高度
+     *
+     * @param row    行
+     * @param height 行高(px)，小于0时恢复为默认行高
+     */
+    public void setRowHeight(int row, int height) {
+        if (mRowAxis.getConfiguredSize(row) != Math.max(height, -1)) {
+            mRowAxis.setSize(row, height);
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    /**
+     * 获取某一行的实际高度
+     */
+    public int getRowHeight(int row) {
+        return mRowAxis.sizeOf(row);
+    }
+
+    private int getScrollRangeX() {
+        return Math.max(0, scaled(getContentWidth()) - getWidth());
+    }
+
+    private int getScrollRangeY() {
+        return Math.max(0, scaled(getContentHeight()) - getHeight());
+    }
+
+    @Override
+    public void scrollTo(int x, int y) {
+        super.scrollTo(Math.max(0, Math.min(x, getScrollRangeX())), Math.max(0, Math.min(y, getScrollRangeY())));
+    }
+
+    @Override
+    public void computeScroll() {
+        if (mScroller.computeScrollOffset()) {
+            scrollTo(mScroller.getCurrX(), mScroller.getCurrY());
+            postInvalidateOnAnimation();
+        }
+    }
+
+    @Override
+    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+        super.onScrollChanged(l, t, oldl, oldt);
+        if (mAdapter != null && updateVisibleRange()) {
+            populateAdapterViews();
+        }
+    }
+
+    @Override
+    protected int computeHorizontalScrollRange() {
+        return scaled(getContentWidth());
+    }
+
+    @Override
+    protected int computeVerticalScrollRange() {
+        return scaled(getContentHeight());
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getViewTreeObserver().addOnScrollChangedListener(mOnScrollChangedListener);
+        scheduleAppend();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        getViewTreeObserver().removeOnScrollChangedListener(mOnScrollChangedListener);
+        stopDragSelection();
+        mCornerHeaderCache.release();
+        mTopHeaderCache.release();
+        mLeftHeaderCache.release();
+        if (mTileCache != null) {
+            mTileCache.clear();
+        }
+        if (mZoomSnapshot != null) {
+            mZoomSnapshotActive = false;
+            mZoomSnapshot.recycle();
+            mZoomSnapshot = null;
+        }
+        if (mAppendScheduled) {
+            mAppendScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(mAppendFrameCallback);
+        }
+        super.onDetachedFromWindow();
     }
 
-    public void setTableCellData(Collection<TableCell> cells) {
-        cellData.clear();
-        removeAllViews();
-        if (cells != null && cells.size() > 0) {
-            for (TableCell cell : cells) {
-                if (!isDefaultCellLayoutParam(cell)) {
-                    cellData.put(genCellMapKey(cell.getRow(), cell.getCol()), cell);
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mZoomEnabled) {
+            boolean wasScaling = mZoomGestureActive;
+            mScaleDetector.onTouchEvent(event);
+            if (mZoomGestureActive) {
+                if (!wasScaling) {
+                    //缩放开始，取消点击、滑动和拖动选择
+                    MotionEvent cancel = MotionEvent.obtain(event);
+                    cancel.setAction(MotionEvent.ACTION_CANCEL);
+                    mGestureDetector.onTouchEvent(cancel);
+                    cancel.recycle();
                 }
-                if(cell.getView() != null){
-                    addView(cell.getView(), cell);
+                int action = event.getActionMasked();
+                if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                    mZoomGestureActive = false;
                 }
+                return true;
             }
         }
-        requestLayout();
+        mGestureDetector.onTouchEvent(event);
+        return mConsumeTouchEvent;
     }
 
     @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        gestureDetectorCompat.onTouchEvent(event);
-        return mConsumeTouchEvent;
+    public boolean onInterceptTouchEvent(MotionEvent ev) {
+        //缩放后子View的绘制位置与布局位置不一致，由表格处理所有触摸事件；双指操作交给缩放手势
+        if (mZoom != 1f || mZoomEnabled && ev.getPointerCount() > 1) {
+            return true;
+        }
+        return super.onInterceptTouchEvent(ev);
     }
 
-    @Override
-    public void requestLayout() {
-        super.requestLayout();
-        if (getLayerType() == LAYER_TYPE_SOFTWARE) {
+    private void startZoomGesture(float focusX, float focusY) {
+        mZoomGestureActive = true;
+        mGestureScale = 1f;
+        mZoomFocusX = focusX;
+        mZoomFocusY = focusY;
+        if (!mScroller.isFinished()) {
+            mScroller.abortAnimation();
+        }
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (mZoomSnapshot == null || mZoomSnapshot.getWidth() != width || mZoomSnapshot.getHeight() != height) {
+            if (mZoomSnapshot != null) {
+                mZoomSnapshot.recycle();
+            }
+            mZoomSnapshot = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
+        //截取当前画面，手势期间只缩放截图，不测量、布局和绘制单元格
+        mZoomSnapshot.eraseColor(Color.TRANSPARENT);
+        Canvas canvas = new Canvas(mZoomSnapshot);
+        canvas.translate(-getScrollX(), -getScrollY());
+        onDraw(canvas);
+        dispatchDraw(canvas);
+        mZoomSnapshotActive = true;
+    }
+
+    private void drawZoomSnapshot(Canvas canvas) {
+        if (mZoomSnapshot == null) {
+            return;
+        }
+        canvas.save();
+        canvas.translate(getScrollX(), getScrollY());
+        canvas.scale(mGestureScale, mGestureScale, mZoomFocusX, mZoomFocusY);
+        canvas.drawBitmap(mZoomSnapshot, 0, 0, mZoomSnapshotPaint);
+        canvas.restore();
+    }
+
+    private void finishZoomGesture() {
+        mZoomSnapshotActive = false;
+        applyZoom(clampZoom(mZoom * mGestureScale), mZoomFocusX, mZoomFocusY);
+        mGestureScale = 1f;
+    }
+
+    /**
+     * 按最终比例重新布局一次，并保持焦点下的内容位置不变
+     *
+     * @param focusX 焦点的View坐标
+     */
+    private void applyZoom(float zoom, float focusX, float focusY) {
+        if (zoom == mZoom) {
             invalidate();
+            return;
         }
+        float contentX = (focusX + getScrollX()) / mZoom;
+        float contentY = (focusY + getScrollY()) / mZoom;
+        mZoom = zoom;
+        invalidateContentCaches();
+        requestLayout();
+        scrollTo(Math.round(contentX * zoom - focusX), Math.round(contentY * zoom - focusY));
+        invalidate();
+    }
+
+    private float clampZoom(float zoom) {
+        return Math.max(mMinZoom, Math.min(zoom, mMaxZoom));
     }
 
 
@@ -579,8 +2634,7 @@ public class TableLayout extends ViewGroup {
                 cell.getView() == null &&
                 cell.getRowSpan() == 1 &&
                 cell.getColSpan() == 1 &&
-                cell.getGravity() == Gravity.CENTER &&
-                !cell.isSelected();
+                cell.getGravity() == Gravity.CENTER;
     }
 
     public void setConsumeTouchEvent(boolean consume) {
@@ -595,6 +2649,7 @@ public class TableLayout extends ViewGroup {
             this.mColumnCount = Math.max(columnCount, 1);
 
             requestLayout();
+            invalidate();
         }
     }
 
@@ -612,6 +2667,7 @@ public class TableLayout extends ViewGroup {
         if (this.mRowCount != rowCount) {
             this.mRowCount = Math.max(rowCount, 1);
             requestLayout();
+            invalidate();
         }
     }
 
@@ -631,6 +2687,7 @@ public class TableLayout extends ViewGroup {
         if (this.mColor != color) {
             this.mColor = color;
             mBorderPaint.setColor(color);
+            invalidateContentCaches();
             invalidate();
         }
     }
@@ -656,9 +2713,10 @@ public class TableLayout extends ViewGroup {
     public void setBorderWidth(int mBorderWidth) {
         if (this.mBorderWidth != mBorderWidth) {
             this.mBorderWidth = Math.max(2, mBorderWidth);
-            mBorderPaint.setStrokeWidth(mBorderWidth);
-            mBorderPaintClear.setStrokeWidth(mBorderWidth);
+            mBorderPaint.setStrokeWidth(this.mBorderWidth);
+            invalidateContentCaches();
             requestLayout();
+            invalidate();
         }
     }
 
@@ -671,6 +2729,20 @@ public class TableLayout extends ViewGroup {
         return mBorderWidth;
     }
 
+    /**
+     * 最近一次测量中实际重新测量的子View数量，约束和内容都没有变化的子View会被跳过，用于性能统计
+     */
+    public int getMeasuredChildCount() {
+        return mMeasuredChildCount;
+    }
+
+    /**
+     * 边框线段缓存重新计算的次数，用于性能统计
+     */
+    public int getBorderGeometryRebuildCount() {
+        return mBorderGeometry.getRebuildCount();
+    }
+
     /**
      * 设置边框虚线格式
      */
@@ -680,6 +2752,7 @@ public class TableLayout extends ViewGroup {
         } else {
             mBorderPaint.setPathEffect(null);
         }
+        invalidateContentCaches();
         invalidate();
     }
 
@@ -707,20 +2780,13 @@ public class TableLayout extends ViewGroup {
             this.mMultiSelectMode = multiSelectMode;
             if (multiSelectMode) {
                 if (mFocusedCell != null) {
-                    mFocusedCell.setSelected(true);
-                    cellData.put(genCellMapKey(mFocusedCell.getRow(), mFocusedCell.getCol()), mFocusedCell);
+                    mSelection.add(mFocusedCell.getRow(), mFocusedCell.getCol(), mFocusedCell.getRowSpan(), mFocusedCell.getColSpan());
                 }
             } else {
-                Set<String> keySet = cellData.keySet();
-                for (String key : keySet) {
-                    TableCell cell = cellData.get(key);
-                    cell.setSelected(false);
-                    if (isDefaultCellLayoutParam(cell)) {
-                        cellData.remove(key);
-                    }
-                }
+                stopDragSelection();
+                clearSelection();
             }
-            invalidate();
+            invalidateCell(mFocusedCell);
         }
     }
 
@@ -731,35 +2797,291 @@ public class TableLayout extends ViewGroup {
         return this.mMultiSelectMode;
     }
 
+    /**
+     * 设置固定不随滑动的表头行数，表头在单独的图层中绘制并缓存，只有表头内容变化时才重新绘制
+     */
+    public void setFrozenRowCount(int count) {
+        count = Math.max(count, 0);
+        if (mFrozenRowCount != count) {
+            mFrozenRowCount = count;
+            mHeaderDirty = true;
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    public int getFrozenRowCount() {
+        return mFrozenRowCount;
+    }
+
+    /**
+     * 设置固定不随滑动的表头列数
+     */
+    public void setFrozenColumnCount(int count) {
+        count = Math.max(count, 0);
+        if (mFrozenColumnCount != count) {
+            mFrozenColumnCount = count;
+            mHeaderDirty = true;
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    public int getFrozenColumnCount() {
+        return mFrozenColumnCount;
+    }
+
+    /**
+     * 设置固定表头的背景色，表头覆盖在滑动的内容上，需要不透明
+     */
+    public void setHeaderBackgroundColor(int color) {
+        if (mHeaderBackgroundColor != color) {
+            mHeaderBackgroundColor = color;
+            mHeaderDirty = true;
+            invalidate();
+        }
+    }
+
+    public int getHeaderBackgroundColor() {
+        return mHeaderBackgroundColor;
+    }
+
+    /**
+     * 表头缓存重新绘制的次数，滑动时不变，用于性能统计
+     */
+    public int getHeaderRenderCount() {
+        return mCornerHeaderCache.getRenderCount() + mTopHeaderCache.getRenderCount() + mLeftHeaderCache.getRenderCount();
+    }
+
+    /**
+     * 是否使用分块缓存绘制表格内容，适合内容很少变化的表格，默认关闭。
+     * 开启后边框、文本/图片单元格和子View按固定大小分块绘制到位图，没有变化的分块直接绘制位图；
+     * 单元格内容变化或子View重绘时只重新绘制所在的分块。子View的动画和变换不会显示
+     */
+    public void setTileCacheEnabled(boolean enabled) {
+        if (enabled == (mTileCache != null)) {
+            return;
+        }
+        if (enabled) {
+            mTileCache = new TileCache(mTileCacheMaxBytes);
+        } else {
+            mTileCache.clear();
+            mTileCache = null;
+        }
+        invalidate();
+    }
+
+    public boolean isTileCacheEnabled() {
+        return mTileCache != null;
+    }
+
+    /**
+     * 设置分块缓存的最大字节数，超出时淘汰最近最少使用的分块，默认为可用内存的1/16
+     */
+    public void setTileCacheMaxBytes(int maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        mTileCacheMaxBytes = maxBytes;
+        if (mTileCache != null) {
+            mTileCache.setMaxSize(maxBytes);
+        }
+    }
+
+    public int getTileCacheMaxBytes() {
+        return mTileCacheMaxBytes;
+    }
+
+    /**
+     * 分块缓存当前占用的字节数
+     */
+    public int getTileCacheSize() {
+        return mTileCache == null ? 0 : mTileCache.getSize();
+    }
+
+    /**
+     * 直接使用缓存位图绘制的分块次数，用于性能统计
+     */
+    public int getTileHitCount() {
+        return mTileCache == null ? 0 : mTileCache.getHitCount();
+    }
+
+    /**
+     * 缓存中没有、新建位图绘制的分块次数，用于性能统计
+     */
+    public int getTileMissCount() {
+        return mTileCache == null ? 0 : mTileCache.getMissCount();
+    }
+
+    /**
+     * 内容变化后重新绘制的分块次数，用于性能统计
+     */
+    public int getTileRerenderCount() {
+        return mTileCache == null ? 0 : mTileCache.getRerenderCount();
+    }
+
+    /**
+     * 是否可以双指缩放表格，默认关闭
+     */
+    public void setZoomEnabled(boolean enabled) {
+        this.mZoomEnabled = enabled;
+    }
+
+    public boolean isZoomEnabled() {
+        return this.mZoomEnabled;
+    }
+
+    /**
+     * 设置缩放比例的范围，当前比例超出范围时调整到范围内
+     *
+     * @throws IllegalArgumentException 最小比例不大于0或大于最大比例
+     */
+    public void setZoomRange(float minZoom, float maxZoom) {
+        if (minZoom <= 0 || minZoom > maxZoom) {
+            throw new IllegalArgumentException("Invalid zoom range [" + minZoom + ", " + maxZoom + "]");
+        }
+        this.mMinZoom = minZoom;
+        this.mMaxZoom = maxZoom;
+        applyZoom(clampZoom(mZoom), 0, 0);
+    }
+
+    public float getMinZoom() {
+        return this.mMinZoom;
+    }
+
+    public float getMaxZoom() {
+        return this.mMaxZoom;
+    }
+
+    /**
+     * 设置缩放比例，以左上角为中心缩放。单元格按原始大小布局，只缩放绘制
+     */
+    public void setZoom(float zoom) {
+        applyZoom(clampZoom(zoom), 0, 0);
+    }
+
+    public float getZoom() {
+        return this.mZoom;
+    }
+
+    /**
+     * 多选模式下拖动是否选择矩形区域，默认关闭，拖动用于滑动表格。
+     * 开启后多选模式下拖动不再滑动表格，拖动到表格边缘时自动滚动
+     */
+    public void setDragSelectEnabled(boolean enabled) {
+        this.mDragSelectEnabled = enabled;
+        if (!enabled) {
+            stopDragSelection();
+        }
+    }
+
+    public boolean isDragSelectEnabled() {
+        return this.mDragSelectEnabled;
+    }
+
     /**
      * 清除已选中的单元格
      */
     public void clearFocusedCell() {
+        invalidateCell(mFocusedCell);
         mFocusedCell = null;
-        Set<String> keySet = cellData.keySet();
-        for (String key : keySet) {
-            TableCell cell = cellData.get(key);
-            cell.setSelected(false);
-            if (isDefaultCellLayoutParam(cell)) {
-                cellData.remove(cell);
-            }
+        clearSelection();
+    }
+
+    /**
+     * 清除选区，并重绘被清除的区域
+     */
+    public void clearSelection() {
+        for (int i = 0, n = mSelection.getRangeCount(); i < n; i++) {
+            CellSelection.Range range = mSelection.getRange(i);
+            invalidateCell(range.row, range.col, range.rowSpan, range.colSpan);
         }
+        mSelection.clear();
+    }
+
+    /**
+     * 选中所有单元格，仅在多选模式下显示
+     */
+    public void selectAll() {
+        mSelection.selectAll(mRowCount, mColumnCount);
         invalidate();
     }
 
+    /**
+     * 选中一行
+     */
+    public void selectRow(int row) {
+        selectRange(row, 0, 1, mColumnCount);
+    }
+
+    /**
+     * 选中一列
+     */
+    public void selectColumn(int column) {
+        selectRange(0, column, mRowCount, 1);
+    }
+
+    /**
+     * 选中矩形区域，与已选中的区域合并
+     */
+    public void selectRange(int row, int column, int rowSpan, int columnSpan) {
+        mSelection.add(row, column, rowSpan, columnSpan);
+        invalidateCell(row, column, rowSpan, columnSpan);
+    }
+
+    /**
+     * 取消选中矩形区域
+     */
+    public void deselectRange(int row, int column, int rowSpan, int columnSpan) {
+        mSelection.remove(row, column, rowSpan, columnSpan);
+        invalidateCell(row, column, rowSpan, columnSpan);
+    }
+
+    public boolean isCellSelected(int row, int column) {
+        return mSelection.contains(row, column);
+    }
+
+    /**
+     * 获取选区的副本
+     */
+    @NonNull
+    public CellSelection getSelection() {
+        return new CellSelection(mSelection);
+    }
 
+    /**
+     * 获取选中单元格的副本，副本的{@link TableCell#isSelected()}为true，表格内的格子不保存选中状态。
+     * 合并单元格只返回左上角的格子(即使左上角不在选区内)，耗时与选中的格子数量成正比
+     */
     public List<TableCell> getSelectedCells() {
         List<TableCell> result = new ArrayList<>();
-        for (TableCell cell : cellData.values()) {
-            if (cell.isSelected()) {
-                result.add(cell);
+        CellIndex<Boolean> spans = new CellIndex<>();
+        for (int i = 0, n = mSelection.getRangeCount(); i < n; i++) {
+            CellSelection.Range range = mSelection.getRange(i);
+            for (int r = range.row, rowEnd = range.row + range.rowSpan; r < rowEnd; r++) {
+                for (int c = range.col, colEnd = range.col + range.colSpan; c < colEnd; c++) {
+                    int row = r, col = c;
+                    SpanIndex.Span span = spanIndex.find(r, c);
+                    if (span != null) {
+                        //合并单元格被多个格子或多个区域覆盖时只返回一次
+                        if (spans.put(span.row, span.col, Boolean.TRUE) != null) {
+                            continue;
+                        }
+                        row = span.row;
+                        col = span.col;
+                    }
+                    TableCell cell = cellData.get(row, col);
+                    TableCell copy = cell != null ? cell.copy() : new TableCell(row, col);
+                    copy.setSelected(true);
+                    result.add(copy);
+                }
             }
         }
         return result;
     }
 
     public List<TableCell> getTableCellData() {
-        return new ArrayList<>(cellData.values());
+        return cellData.values(new ArrayList<TableCell>(cellData.size()));
     }
 
     public void combineCell(TableCell cell) {
@@ -802,44 +3124,51 @@ public class TableLayout extends ViewGroup {
         if (minRow == maxRow && minCol == maxCol) {
             return;
         }
-        TableCell cell = cellData.get(genCellMapKey(minRow, minCol));
-        if (cell == null) {
-            cell = new TableCell(minRow, minCol);
-            cellData.put(genCellMapKey(cell.getRow(), cell.getCol()), cell);
-        }
-        //删除合并单元格后被合并的项
-        Set<String> keySet = cellData.keySet();
-        cellData.keySet().iterator();
-        for (String key : keySet) {
-            TableCell c = cellData.get(key);
-            if (!c.equals(cell) && isDefaultCellLayoutParam(c)) {
-                cellData.remove(key);
+        //与已有合并区域部分重叠时扩展为包含它们的矩形，被包含的合并区域并入新的区域
+        SpanIndex.Span region = spanIndex.expandToCover(minRow, minCol, maxRow - minRow + 1, maxCol - minCol + 1);
+        mSelection.remove(region.row, region.col, region.rowSpan, region.colSpan);
+        List<SpanIndex.Span> absorbed = new ArrayList<>();
+        spanIndex.removeWithin(region.row, region.col, region.rowSpan, region.colSpan, absorbed);
+        for (SpanIndex.Span span : absorbed) {
+            TableCell c = cellData.get(span.row, span.col);
+            if (c != null) {
+                c.setRowSpan(1);
+                c.setColSpan(1);
             }
         }
-        //左上的格子行列进行扩展
-        cell.setColSpan(maxCol - minCol + 1);
-        cell.setRowSpan(maxRow - minRow + 1);
-        //左上的格子view布局更新
-        View child = cell.getView();
-        if (child != null) {
-            LayoutParams lp = (LayoutParams) child.getLayoutParams();
-            lp.rowSpan = cell.getRowSpan();
-            lp.columnSpan = cell.getColSpan();
+        TableCell cell = cellData.get(region.row, region.col);
+        if (cell == null) {
+            cell = new TableCell(region.row, region.col);
         }
-        //被合并的格子view不显示
-        for (int r = cell.getRow(); r < cell.getRow() + cell.getRowSpan(); r++) {
-            for (int c = cell.getCol(); c < cell.getCol() + cell.getColSpan(); c++) {
-                if (r == cell.getRow() && c == cell.getCol()) {
+        //左上的格子行列进行扩展
+        cell.setRowSpan(region.rowSpan);
+        cell.setColSpan(region.colSpan);
+        cellData.put(cell.getRow(), cell.getCol(), cell);
+        spanIndex.put(cell.getRow(), cell.getCol(), cell.getRowSpan(), cell.getColSpan());
+        //更新区域内的格子：左上的格子view布局更新，被合并的格子view不显示，删除没有布局属性的项
+        for (int r = region.row; r < region.row + region.rowSpan; r++) {
+            for (int c = region.col; c < region.col + region.colSpan; c++) {
+                TableCell covered = cellData.get(r, c);
+                if (covered == null) {
                     continue;
                 }
-                child = getChildAt(r, c);
+                View child = covered.getView();
                 if (child != null) {
-                    child.setVisibility(View.GONE);
+                    LayoutParams lp = (LayoutParams) child.getLayoutParams();
+                    lp.rowSpan = covered.getRowSpan();
+                    lp.columnSpan = covered.getColSpan();
+                    if (covered != cell) {
+                        child.setVisibility(View.GONE);
+                    }
+                }
+                if (isDefaultCellLayoutParam(covered)) {
+                    removeCellData(r, c);
                 }
             }
         }
         mFocusedCell = null;
         requestLayout();
+        invalidate();
     }
 
     public void unCombineCell(TableCell cell){
@@ -861,7 +3190,13 @@ public class TableLayout extends ViewGroup {
         for (TableCell cell : cells) {
             cell.setSelected(false);
         }
-        for (TableCell cell : cells) {
+        for (TableCell item : cells) {
+            //传入的可能是getSelectedCells()返回的副本，修改表格内的格子
+            TableCell cell = cellData.get(item.getRow(), item.getCol());
+            if (cell == null) {
+                cell = item;
+            }
+            mSelection.remove(cell.getRow(), cell.getCol(), cell.getRowSpan(), cell.getColSpan());
             if (cell.getRowSpan() > 1 || cell.getColSpan() > 1) {
                 //被合并的格子view可以显示
                 View child = null;
@@ -878,6 +3213,7 @@ public class TableLayout extends ViewGroup {
                 }
                 cell.setRowSpan(1);
                 cell.setColSpan(1);
+                putSpan(cell);
                 //子view布局属性更新
                 child = cell.getView();
                 if (child != null) {
@@ -890,6 +3226,7 @@ public class TableLayout extends ViewGroup {
         }
         mFocusedCell = null;
         requestLayout();
+        invalidate();
     }
 
     /**
@@ -906,20 +3243,30 @@ public class TableLayout extends ViewGroup {
     public void setCellGravity(TableCell cell, int gravity) {
         cell.setGravity(gravity);
         if (gravity != Gravity.CENTER) {
-            cellData.put(genCellMapKey(cell.getRow(), cell.getCol()), cell);
+            putCellData(cell);
         } else {
-            String key = genCellMapKey(cell.getRow(), cell.getCol());
-            TableCell cell1 = cellData.get(key);
+            TableCell cell1 = cellData.get(cell.getRow(), cell.getCol());
             if (isDefaultCellLayoutParam(cell1)) {
-                cellData.remove(key);
+                removeCellData(cell.getRow(), cell.getCol());
+            }
+        }
+        if (mCellTexts.containsKey(cell.getRow(), cell.getCol())) {
+            if (cell.getRow() < mFrozenRowCount || cell.getCol() < mFrozenColumnCount) {
+                mHeaderDirty = true;
             }
+            invalidateCellContent(cell.getRow(), cell.getCol());
         }
         View child = cell.getView();
         if (child != null) {
             LayoutParams lp = (LayoutParams) child.getLayoutParams();
             if (lp.getGravity() != gravity) {
                 lp.setGravity(gravity);
-                requestLayout();
+                if (mBatchDepth > 0 || isLayoutRequested() || child.getVisibility() == GONE) {
+                    requestLayout();
+                } else {
+                    //对齐方式不影响测量，只需要重新摆放该子View
+                    layoutCellChild(child);
+                }
             }
         }
     }
@@ -935,14 +3282,126 @@ public class TableLayout extends ViewGroup {
             LayoutParams lp = (LayoutParams) child.getLayoutParams();
             return lp.getGravity();
         }
-        return Gravity.CENTER;
+        TableCell cell = cellData.get(row, column);
+        return cell == null ? Gravity.CENTER : cell.getGravity();
+    }
+
+    /**
+     * 设置文本单元格的内容，使用默认样式
+     *
+     * @see #setCellText(int, int, CharSequence, CellTextStyle)
+     */
+    public void setCellText(int row, int column, @Nullable CharSequence text) {
+        setCellText(row, column, text, null);
+    }
+
+    /**
+     * 设置文本单元格的内容，表格只保存文本和样式，在onDraw中直接绘制，不创建子View。
+     * 文字按单元格的对齐方式({@link #setCellGravity(TableCell, int)})排版，超出单元格的部分被裁剪；
+     * 合并单元格使用左上角格子的文本。同一格子中的子View绘制在文本之上
+     *
+     * @param text  文本，null表示删除
+     * @param style 样式，null表示使用{@link #setDefaultTextStyle(CellTextStyle)}设置的样式
+     */
+    public void setCellText(int row, int column, @Nullable CharSequence text, @Nullable CellTextStyle style) {
+        if (text == null) {
+            if (mCellTexts.remove(row, column) == null) {
+                return;
+            }
+        } else {
+            mCellTexts.put(row, column, new CellText(text, style == null ? mDefaultTextStyle : style));
+        }
+        if (row < mFrozenRowCount || column < mFrozenColumnCount) {
+            mHeaderDirty = true;
+        }
+        invalidateCellContent(row, column);
+    }
+
+    @Nullable
+    public CharSequence getCellText(int row, int column) {
+        CellText text = mCellTexts.get(row, column);
+        return text == null ? null : text.text;
+    }
+
+    /**
+     * 删除所有文本单元格
+     */
+    public void clearCellTexts() {
+        if (!mCellTexts.isEmpty()) {
+            mCellTexts.clear();
+            mTextLayoutCache.evictAll();
+            invalidateContentCaches();
+            invalidate();
+        }
+    }
+
+    /**
+     * 设置图片单元格，图片在后台线程按单元格(包括合并区域)的大小降采样解码，缓存在{@link #getImageCache()}中。
+     * 图片按比例缩放到单元格内，位置由单元格的对齐方式决定，文本绘制在图片之上
+     *
+     * @param source 图片来源，null表示删除
+     */
+    public void setCellImage(int row, int column, @Nullable CellImageSource source) {
+        if (source == null) {
+            if (mCellImages.remove(row, column) == null) {
+                return;
+            }
+        } else {
+            mCellImages.put(row, column, source);
+        }
+        if (row < mFrozenRowCount || column < mFrozenColumnCount) {
+            mHeaderDirty = true;
+        }
+        invalidateCellContent(row, column);
+    }
+
+    @Nullable
+    public CellImageSource getCellImage(int row, int column) {
+        return mCellImages.get(row, column);
+    }
+
+    /**
+     * 删除所有图片单元格，已解码的图片仍保留在缓存中
+     */
+    public void clearCellImages() {
+        if (!mCellImages.isEmpty()) {
+            mCellImages.clear();
+            invalidateContentCaches();
+            invalidate();
+        }
+    }
+
+    /**
+     * 设置图片缓存，多个表格可以共享同一个缓存
+     */
+    public void setImageCache(@NonNull CellImageCache cache) {
+        if (mImageCache != cache) {
+            mImageCache = cache;
+            invalidateContentCaches();
+            invalidate();
+        }
+    }
+
+    /**
+     * 图片缓存，未设置时使用可用内存1/8大小的缓存
+     */
+    @NonNull
+    public CellImageCache getImageCache() {
+        if (mImageCache == null) {
+            mImageCache = CellImageCache.createDefault();
+        }
+        return mImageCache;
     }
 
-    private String genCellMapKey(int row, int col) {
-        return row + "," + col;
+    /**
+     * 设置文本单元格的默认样式，只影响之后设置的文本
+     */
+    public void setDefaultTextStyle(@NonNull CellTextStyle style) {
+        mDefaultTextStyle = style;
     }
 
-    private String genCellMapKey(TableCell cell) {
-        return cell.getRow() + "," + cell.getCol();
+    @NonNull
+    public CellTextStyle getDefaultTextStyle() {
+        return mDefaultTextStyle;
     }
 }
@@ -0,0 +1,104 @@
+package com.github.jeffery.tablelayout;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 逐行追加到{@link TableLayout}的数据流
+ * <p>
+ * 后台线程通过{@link #offer(Collection)}提交行数据，全部提交后调用{@link #close()}，
+ * 表格在主线程按帧分批取出并添加，见{@link TableLayout#appendRows(TableRowStream)}。
+ * 后台线程提交的单元格不能包含View，View可以由{@link TableAdapter}创建。
+ */
+public final class TableRowStream {
+
+    private final Iterator<? extends Collection<TableCell>> mIterator;
+    private final ConcurrentLinkedQueue<Collection<TableCell>> mQueue;
+    private volatile boolean mClosed = false;
+    /**
+     * 有新数据时的通知，由表格设置
+     */
+    private volatile Runnable mListener;
+
+    public TableRowStream() {
+        mIterator = null;
+        mQueue = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * 在主线程逐行读取迭代器
+     */
+    TableRowStream(Iterator<? extends Collection<TableCell>> iterator) {
+        mIterator = iterator;
+        mQueue = null;
+    }
+
+    /**
+     * 提交一行单元格，可以在任意线程调用
+     *
+     * @throws IllegalStateException 已经关闭
+     */
+    public void offer(Collection<TableCell> row) {
+        if (mQueue == null || mClosed) {
+            throw new IllegalStateException("TableRowStream is closed");
+        }
+        mQueue.offer(row);
+        notifyListener();
+    }
+
+    /**
+     * 没有更多数据，可以在任意线程调用
+     */
+    public void close() {
+        mClosed = true;
+        notifyListener();
+    }
+
+    public boolean isClosed() {
+        return mClosed;
+    }
+
+    /**
+     * 取出下一行
+     *
+     * @return 暂时没有数据时返回null
+     */
+    Collection<TableCell> poll() {
+        if (mIterator != null) {
+            return mIterator.hasNext() ? mIterator.next() : null;
+        }
+        return mQueue.poll();
+    }
+
+    /**
+     * 是否有可以立即取出的数据
+     */
+    boolean hasPending() {
+        if (mIterator != null) {
+            return mIterator.hasNext();
+        }
+        return !mQueue.isEmpty();
+    }
+
+    /**
+     * 数据已全部取出
+     */
+    boolean isFinished() {
+        if (mIterator != null) {
+            return !mIterator.hasNext();
+        }
+        return mClosed && mQueue.isEmpty();
+    }
+
+    void setListener(Runnable listener) {
+        mListener = listener;
+    }
+
+    private void notifyListener() {
+        Runnable listener = mListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+}
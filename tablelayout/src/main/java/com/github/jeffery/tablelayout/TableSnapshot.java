@@ -0,0 +1,288 @@
+package com.github.jeffery.tablelayout;
+
+import android.view.Gravity;
+
+import com.github.jeffery.tablelayout.engine.CellIndex;
+import com.github.jeffery.tablelayout.engine.SpanIndex;
+import com.github.jeffery.tablelayout.engine.TableModel;
+
+import java.util.Arrays;
+
+/**
+ * 不可变的表格结构快照：行列数、行高列宽、合并单元格和对齐方式，不包含View
+ * <p>
+ * 通过{@link Builder}在任意线程构建，构建时完成校验和合并区域索引的计算，
+ * 之后可以在线程间共享，在主线程通过{@link TableLayout#applySnapshot(TableSnapshot)}一次性替换表格结构。
+ */
+public final class TableSnapshot {
+
+    private final int rowCount;
+    private final int columnCount;
+    private final int rowHeight;
+    private final int columnWidth;
+    private final int[] rowHeights;
+    private final int[] columnWidths;
+    /**
+     * 跨度或对齐方式不是默认值的单元格，只在复制后交给表格使用
+     */
+    private final CellIndex<TableCell> cells;
+    private final SpanIndex spans;
+
+    private TableSnapshot(Builder builder) {
+        rowCount = builder.rowCount;
+        columnCount = builder.columnCount;
+        rowHeight = builder.rowHeight;
+        columnWidth = builder.columnWidth;
+        rowHeights = builder.rowHeights.clone();
+        columnWidths = builder.columnWidths.clone();
+        cells = copyCells(builder.cells);
+        spans = builder.spans.copy();
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * 固定行高，0表示平分表格
+     */
+    public int getRowHeight() {
+        return rowHeight;
+    }
+
+    /**
+     * 固定列宽，0表示平分表格
+     */
+    public int getColumnWidth() {
+        return columnWidth;
+    }
+
+    /**
+     * 单独设置的行高，未设置返回-1
+     */
+    public int getRowHeight(int row) {
+        return row >= 0 && row < rowHeights.length ? rowHeights[row] : -1;
+    }
+
+    /**
+     * 单独设置的列宽，未设置返回-1
+     */
+    public int getColumnWidth(int column) {
+        return column >= 0 && column < columnWidths.length ? columnWidths[column] : -1;
+    }
+
+    /**
+     * 包含该格子的合并区域
+     *
+     * @return 不在合并区域内时返回null
+     */
+    public SpanIndex.Span findSpan(int row, int column) {
+        return spans.find(row, column);
+    }
+
+    /**
+     * 格子的对齐方式
+     */
+    public int getGravity(int row, int column) {
+        TableCell cell = cells.get(row, column);
+        return cell == null ? Gravity.CENTER : cell.getGravity();
+    }
+
+    /**
+     * 复制单元格供表格修改，快照本身保持不变
+     */
+    CellIndex<TableCell> copyCells() {
+        return copyCells(cells);
+    }
+
+    SpanIndex copySpans() {
+        return spans.copy();
+    }
+
+    private static CellIndex<TableCell> copyCells(CellIndex<TableCell> cells) {
+        CellIndex<TableCell> copy = cells.copy();
+        for (int i = 0, n = copy.capacity(); i < n; i++) {
+            TableCell cell = copy.valueAt(i);
+            if (cell != null) {
+                TableCell c = new TableCell(cell.getRow(), cell.getCol());
+                c.setRowSpan(cell.getRowSpan());
+                c.setColSpan(cell.getColSpan());
+                c.setGravity(cell.getGravity());
+                copy.put(c.getRow(), c.getCol(), c);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * 快照构建器，可以在任意线程使用，但不能同时在多个线程使用
+     */
+    public static final class Builder {
+
+        private final int rowCount;
+        private final int columnCount;
+        private int rowHeight = 0;
+        private int columnWidth = 0;
+        private int[] rowHeights;
+        private int[] columnWidths;
+        private final CellIndex<TableCell> cells = new CellIndex<>();
+        private final SpanIndex spans = new SpanIndex();
+
+        public Builder(int rowCount, int columnCount) {
+            if (rowCount < 1 || columnCount < 1) {
+                throw new IllegalArgumentException("rowCount and columnCount must be positive");
+            }
+            this.rowCount = rowCount;
+            this.columnCount = columnCount;
+            rowHeights = new int[rowCount];
+            columnWidths = new int[columnCount];
+            Arrays.fill(rowHeights, -1);
+            Arrays.fill(columnWidths, -1);
+        }
+
+        /**
+         * 从表格模板构建
+         *
+         * @throws IllegalArgumentException 模板中的单元格超出范围或合并区域重叠
+         */
+        public Builder(TableModel model) {
+            this(Math.max(model.getRowCount(), 1), Math.max(model.getColumnCount(), 1));
+            setRowHeight(model.getRowHeight());
+            setColumnWidth(model.getColumnWidth());
+            int[] heights = model.getRowHeights();
+            for (int i = 0; i < heights.length && i < rowCount; i++) {
+                rowHeights[i] = Math.max(heights[i], -1);
+            }
+            int[] widths = model.getColumnWidths();
+            for (int i = 0; i < widths.length && i < columnCount; i++) {
+                columnWidths[i] = Math.max(widths[i], -1);
+            }
+            for (TableModel.Cell cell : model.getCells()) {
+                if (cell.getRowSpan() > 1 || cell.getColSpan() > 1) {
+                    mergeCells(cell.getRow(), cell.getCol(), cell.getRowSpan(), cell.getColSpan());
+                }
+                if (cell.getGravity() != Gravity.CENTER) {
+                    setGravity(cell.getRow(), cell.getCol(), cell.getGravity());
+                }
+            }
+        }
+
+        /**
+         * 固定行高，0表示平分表格
+         */
+        public Builder setRowHeight(int rowHeight) {
+            this.rowHeight = Math.max(rowHeight, 0);
+            return this;
+        }
+
+        /**
+         * 固定列宽，0表示平分表格
+         */
+        public Builder setColumnWidth(int columnWidth) {
+            this.columnWidth = Math.max(columnWidth, 0);
+            return this;
+        }
+
+        /**
+         * 单独设置行高，小于0时恢复为默认行高
+         *
+         * @throws IllegalArgumentException 行超出范围
+         */
+        public Builder setRowHeight(int row, int height) {
+            checkIndex(row, rowCount, "row");
+            rowHeights[row] = Math.max(height, -1);
+            return this;
+        }
+
+        /**
+         * 单独设置列宽，小于0时恢复为默认列宽
+         */
+        public Builder setColumnWidth(int column, int width) {
+            checkIndex(column, columnCount, "column");
+            columnWidths[column] = Math.max(width, -1);
+            return this;
+        }
+
+        public Builder setGravity(int row, int column, int gravity) {
+            checkIndex(row, rowCount, "row");
+            checkIndex(column, columnCount, "column");
+            TableCell cell = cells.get(row, column);
+            if (cell == null) {
+                if (gravity == Gravity.CENTER) {
+                    return this;
+                }
+                cell = new TableCell(row, column);
+                cells.put(row, column, cell);
+            }
+            cell.setGravity(gravity);
+            removeIfDefault(cell);
+            return this;
+        }
+
+        /**
+         * 合并单元格
+         *
+         * @throws IllegalArgumentException 超出表格范围或与已有的合并区域重叠
+         */
+        public Builder mergeCells(int row, int column, int rowSpan, int columnSpan) {
+            checkIndex(row, rowCount, "row");
+            checkIndex(column, columnCount, "column");
+            if (rowSpan < 1 || columnSpan < 1 || row + rowSpan > rowCount || column + columnSpan > columnCount) {
+                throw new IllegalArgumentException("Span " + rowSpan + "x" + columnSpan
+                        + " at (" + row + "," + column + ") is out of range");
+            }
+            if (rowSpan == 1 && columnSpan == 1) {
+                return this;
+            }
+            if (spans.intersects(row, column, rowSpan, columnSpan)) {
+                throw new IllegalArgumentException("Span at (" + row + "," + column + ") overlaps an existing span");
+            }
+            TableCell cell = cells.get(row, column);
+            if (cell == null) {
+                cell = new TableCell(row, column);
+                cells.put(row, column, cell);
+            }
+            cell.setRowSpan(rowSpan);
+            cell.setColSpan(columnSpan);
+            spans.put(row, column, rowSpan, columnSpan);
+            return this;
+        }
+
+        /**
+         * 取消以该格子为左上角的合并
+         */
+        public Builder unmergeCells(int row, int column) {
+            TableCell cell = cells.get(row, column);
+            if (cell != null) {
+                cell.setRowSpan(1);
+                cell.setColSpan(1);
+                spans.remove(row, column);
+                removeIfDefault(cell);
+            }
+            return this;
+        }
+
+        /**
+         * 生成快照，构建器可以继续修改，不影响已生成的快照
+         */
+        public TableSnapshot build() {
+            return new TableSnapshot(this);
+        }
+
+        private void removeIfDefault(TableCell cell) {
+            if (cell.getRowSpan() == 1 && cell.getColSpan() == 1 && cell.getGravity() == Gravity.CENTER) {
+                cells.remove(cell.getRow(), cell.getCol());
+            }
+        }
+
+        private static void checkIndex(int index, int count, String name) {
+            if (index < 0 || index >= count) {
+                throw new IllegalArgumentException(name + " " + index + " out of range [0, " + count + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.github.jeffery.tablelayout;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.LruCache;
+
+/**
+ * 表格内容的分块位图缓存
+ * <p>
+ * 内容按固定大小(内容坐标)分块绘制到位图，没有被标记为失效的分块直接绘制位图。
+ * 按位图占用的字节数限制缓存大小，最近最少使用的分块先被淘汰。
+ * 分块背景透明，选中状态等经常变化的内容在分块下方单独绘制。
+ */
+final class TileCache {
+
+    /**
+     * 分块的边长(内容坐标)
+     */
+    static final int TILE_SIZE = 256;
+
+    /**
+     * 把内容区域绘制到使用内容坐标的画布上
+     */
+    interface Renderer {
+        void renderTile(Canvas canvas, Rect area);
+    }
+
+    private static final class Tile {
+        final Bitmap bitmap;
+        /**
+         * 绘制时的内容版本，小于当前版本时需要重新绘制
+         */
+        int generation;
+        boolean dirty;
+        /**
+         * 最近一次绘制到屏幕的帧，该帧内被淘汰的位图可能仍在使用，不能复用
+         */
+        int drawnFrame;
+
+        Tile(Bitmap bitmap) {
+            this.bitmap = bitmap;
+        }
+    }
+
+    private final LruCache<Long, Tile> mTiles;
+    private final Canvas mCanvas = new Canvas();
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect mTileRect = new Rect();
+    /**
+     * 被淘汰后可以复用的位图
+     */
+    private Bitmap mSpare;
+    private float mScale = 1f;
+    private int mGeneration = 0;
+    private int mFrame = 0;
+    private boolean mRendering = false;
+    private int mHitCount = 0;
+    private int mMissCount = 0;
+    private int mRerenderCount = 0;
+
+    /**
+     * @param maxBytes 缓存的最大字节数
+     */
+    TileCache(int maxBytes) {
+        mTiles = new LruCache<Long, Tile>(maxBytes) {
+            @Override
+            protected int sizeOf(Long key, Tile value) {
+                return value.bitmap.getByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Long key, Tile oldValue, Tile newValue) {
+                if (evicted && oldValue.drawnFrame != mFrame && mSpare == null) {
+                    mSpare = oldValue.bitmap;
+                }
+            }
+        };
+    }
+
+    /**
+     * 设置分块位图的缩放比例，比例变化时丢弃所有分块
+     */
+    void setScale(float scale) {
+        if (mScale != scale) {
+            mScale = scale;
+            clear();
+        }
+    }
+
+    /**
+     * 绘制内容区域area，画布使用内容坐标(已按缩放比例缩放)
+     */
+    void draw(Canvas canvas, Rect area, Renderer renderer) {
+        if (area.isEmpty()) {
+            return;
+        }
+        mFrame++;
+        int firstX = area.left / TILE_SIZE;
+        int lastX = (area.right - 1) / TILE_SIZE;
+        int firstY = area.top / TILE_SIZE;
+        int lastY = (area.bottom - 1) / TILE_SIZE;
+        for (int ty = firstY; ty <= lastY; ty++) {
+            for (int tx = firstX; tx <= lastX; tx++) {
+                long key = keyOf(tx, ty);
+                mTileRect.set(tx * TILE_SIZE, ty * TILE_SIZE, (tx + 1) * TILE_SIZE, (ty + 1) * TILE_SIZE);
+                Tile tile = mTiles.get(key);
+                if (tile == null) {
+                    mMissCount++;
+                    tile = new Tile(obtainBitmap());
+                    render(tile, renderer);
+                    mTiles.put(key, tile);
+                } else if (tile.dirty || tile.generation != mGeneration) {
+                    mRerenderCount++;
+                    render(tile, renderer);
+                } else {
+                    mHitCount++;
+                }
+                tile.drawnFrame = mFrame;
+                canvas.drawBitmap(tile.bitmap, null, mTileRect, mPaint);
+            }
+        }
+    }
+
+    private Bitmap obtainBitmap() {
+        int size = (int) Math.ceil(TILE_SIZE * mScale);
+        Bitmap bitmap = mSpare;
+        mSpare = null;
+        if (bitmap == null || bitmap.getWidth() != size || bitmap.getHeight() != size) {
+            bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        }
+        return bitmap;
+    }
+
+    private void render(Tile tile, Renderer renderer) {
+        mRendering = true;
+        try {
+            tile.bitmap.eraseColor(Color.TRANSPARENT);
+            mCanvas.setBitmap(tile.bitmap);
+            mCanvas.save();
+            mCanvas.scale(mScale, mScale);
+            mCanvas.translate(-mTileRect.left, -mTileRect.top);
+            mCanvas.clipRect(mTileRect);
+            renderer.renderTile(mCanvas, mTileRect);
+            mCanvas.restore();
+            mCanvas.setBitmap(null);
+        } finally {
+            mRendering = false;
+        }
+        tile.dirty = false;
+        tile.generation = mGeneration;
+    }
+
+    /**
+     * 标记与内容区域相交的分块需要重新绘制
+     */
+    void invalidate(Rect area) {
+        if (area.isEmpty() || mTiles.size() == 0) {
+            return;
+        }
+        int firstX = Math.max(area.left, 0) / TILE_SIZE;
+        int lastX = Math.max(area.right - 1, 0) / TILE_SIZE;
+        int firstY = Math.max(area.top, 0) / TILE_SIZE;
+        int lastY = Math.max(area.bottom - 1, 0) / TILE_SIZE;
+        int tileSize = (int) Math.ceil(TILE_SIZE * mScale);
+        if ((long) (lastX - firstX + 1) * (lastY - firstY + 1) * tileSize * tileSize * 4 > mTiles.maxSize()) {
+            //区域比缓存能容纳的分块还多时全部失效
+            invalidateAll();
+            return;
+        }
+        for (int ty = firstY; ty <= lastY; ty++) {
+            for (int tx = firstX; tx <= lastX; tx++) {
+                Tile tile = mTiles.get(keyOf(tx, ty));
+                if (tile != null) {
+                    tile.dirty = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 所有分块都需要重新绘制，保留位图以便复用
+     */
+    void invalidateAll() {
+        mGeneration++;
+    }
+
+    /**
+     * 丢弃所有分块
+     */
+    void clear() {
+        mTiles.evictAll();
+        mSpare = null;
+    }
+
+    /**
+     * 是否正在绘制分块，绘制期间子View的重绘请求不使分块失效
+     */
+    boolean isRendering() {
+        return mRendering;
+    }
+
+    void setMaxSize(int maxBytes) {
+        mTiles.resize(maxBytes);
+    }
+
+    int getHitCount() {
+        return mHitCount;
+    }
+
+    int getMissCount() {
+        return mMissCount;
+    }
+
+    int getRerenderCount() {
+        return mRerenderCount;
+    }
+
+    /**
+     * 当前缓存的字节数
+     */
+    int getSize() {
+        return mTiles.size();
+    }
+
+    int getMaxSize() {
+        return mTiles.maxSize();
+    }
+
+    private static long keyOf(int tx, int ty) {
+        return ((long) ty << 32) | (tx & 0xffffffffL);
+    }
+}
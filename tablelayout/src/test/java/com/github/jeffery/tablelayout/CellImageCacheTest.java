@@ -0,0 +1,28 @@
+package com.github.jeffery.tablelayout;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link CellImageCache} 降采样计算的单元测试
+ */
+public class CellImageCacheTest {
+
+    @Test
+    public void sampleSizeKeepsAtLeastTargetSize() {
+        //4000x3000的照片放入200x100的单元格
+        int sampleSize = CellImageCache.calculateInSampleSize(4000, 3000, 200, 100);
+        assertEquals(16, sampleSize);
+        assertTrue(4000 / sampleSize >= 200);
+        assertTrue(3000 / sampleSize >= 100);
+        assertTrue(4000 / (sampleSize * 2) < 200 || 3000 / (sampleSize * 2) < 100);
+    }
+
+    @Test
+    public void noDownsampleForSmallImages() {
+        assertEquals(1, CellImageCache.calculateInSampleSize(100, 100, 200, 200));
+        assertEquals(1, CellImageCache.calculateInSampleSize(300, 300, 200, 200));
+        assertEquals(1, CellImageCache.calculateInSampleSize(300, 300, 0, 200));
+    }
+}